@@ -0,0 +1,271 @@
+package mastermind;
+
+import java.util.Spliterator;
+import java.util.function.LongConsumer;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
+import java.util.stream.StreamSupport;
+
+/**
+ * The space of all possible codes for a number of positions and a number of Pins.
+ * <p>Every code has an ordinal between 0 and {@code size()}. The ordinal is a mixed-radix number with one digit
+ * per position, where position 0 is the least significant digit and every digit is the ordinal of a Pin.
+ * This is the same order as {@code PinRow.getAllPairs()}.
+ * <p>Codes are never stored; they are decoded on demand, so even spaces of millions of codes can be walked
+ * and split across threads without using any memory.
+ * @author Tom van Nimwegen
+ * @see PackedCode
+ */
+public class CodeSpace
+{
+	/**
+	 * The number of positions in a code
+	 */
+	private final int _length;
+	/**
+	 * The number of different Pins in a position
+	 */
+	private final int _colors;
+	/**
+	 * The number of codes in this space
+	 */
+	private final long _size;
+
+	/**
+	 * Constructs a new CodeSpace
+	 * @param length the number of positions in a code
+	 * @param colors the number of different Pins in a position
+	 * @throws IllegalArgumentException if codes of this size do not fit in a packed code
+	 */
+	public CodeSpace(int length, int colors)
+	{
+		if(length < 1 || length > PackedCode.MAX_PINS)
+			throw new IllegalArgumentException("length (" + length + ") " + "is larger then the maximum number of pins (" + PackedCode.MAX_PINS + ")");
+
+		if(colors < 1 || colors > PackedCode.MAX_COLORS)
+			throw new IllegalArgumentException("colors (" + colors + ") does not fit in a packed code");
+
+		this._length = length;
+		this._colors = colors;
+
+		long size = 1;
+		for (int i = 0; i < length; i++)
+		{
+			size = Math.multiplyExact(size, colors);
+		}
+		this._size = size;
+	}
+
+	/**
+	 * Gets the CodeSpace of the current game, using {@code Game.PIN_COUNT} and all valid Pins
+	 */
+	public static CodeSpace current()
+	{
+		return new CodeSpace(Game.PIN_COUNT, Pin.values().length);
+	}
+
+	/**
+	 * Gets the number of codes in this space
+	 */
+	public long size()
+	{
+		return this._size;
+	}
+
+	/**
+	 * Gets the number of positions in a code
+	 */
+	public int getLength()
+	{
+		return this._length;
+	}
+
+	/**
+	 * Gets the number of different Pins in a position
+	 */
+	public int getColors()
+	{
+		return this._colors;
+	}
+
+	/**
+	 * Decodes the code with an ordinal
+	 * @param ordinal the ordinal of the code
+	 * @return the packed code
+	 */
+	public long packed(long ordinal)
+	{
+		long code = 0;
+		for (int i = 0; i < this._length; i++)
+		{
+			code = PackedCode.setPin(code, i, (int)(ordinal % this._colors));
+			ordinal /= this._colors;
+		}
+
+		return code;
+	}
+
+	/**
+	 * Gets the ordinal of a packed code
+	 * @param code the packed code
+	 * @return the ordinal of the code
+	 */
+	public long ordinalOf(long code)
+	{
+		long ordinal = 0;
+		for (int i = this._length - 1; i >= 0; i--)
+		{
+			ordinal = ordinal * this._colors + PackedCode.pinAt(code, i);
+		}
+
+		return ordinal;
+	}
+
+	/**
+	 * Decodes the code with an ordinal into a new PinRow
+	 * @param ordinal the ordinal of the code
+	 * @return a new PinRow containing the code
+	 */
+	public PinRow decode(long ordinal)
+	{
+		return PinRow.fromPacked(this.packed(ordinal), this._length);
+	}
+
+	/**
+	 * Gets a stream of all ordinals in this space
+	 * @throws ArithmeticException if this space has more codes than fit in an {@code int}
+	 */
+	public IntStream ordinals()
+	{
+		return IntStream.range(0, Math.toIntExact(this._size));
+	}
+
+	/**
+	 * Gets a stream of all packed codes in this space, in ordinal order
+	 */
+	public LongStream codes()
+	{
+		return StreamSupport.longStream(this.spliterator(), false);
+	}
+
+	/**
+	 * Gets a spliterator over all packed codes in this space, in ordinal order
+	 */
+	public Spliterator.OfLong spliterator()
+	{
+		return new CodeSpliterator(0, this._size);
+	}
+
+	@Override
+	public boolean equals(Object obj)
+	{
+		if(obj instanceof CodeSpace)
+		{
+			CodeSpace cs = (CodeSpace)obj;
+			return this._length == cs._length && this._colors == cs._colors;
+		}
+
+		return false;
+	}
+
+	@Override
+	public int hashCode()
+	{
+		return this._length * 31 + this._colors;
+	}
+
+	@Override
+	public String toString()
+	{
+		return this._length + "x" + this._colors;
+	}
+
+	/**
+	 * A spliterator over a range of ordinals. The first code is decoded once, after that every code is found by
+	 * counting up the digits, so walking the range does not divide.
+	 */
+	private class CodeSpliterator implements Spliterator.OfLong
+	{
+		private long _ordinal;
+		private final long _end;
+		private long _code;
+
+		CodeSpliterator(long from, long to)
+		{
+			this._ordinal = from;
+			this._end = to;
+			this._code = from < to ? packed(from) : 0;
+		}
+
+		@Override
+		public boolean tryAdvance(LongConsumer action)
+		{
+			if(this._ordinal >= this._end)
+				return false;
+
+			action.accept(this._code);
+			this.advance();
+			return true;
+		}
+
+		@Override
+		public void forEachRemaining(LongConsumer action)
+		{
+			while(this._ordinal < this._end)
+			{
+				action.accept(this._code);
+				this.advance();
+			}
+		}
+
+		/**
+		 * Moves to the next code by adding one to the lowest digit and carrying over
+		 */
+		private void advance()
+		{
+			this._ordinal++;
+
+			for (int i = 0; i < _length; i++)
+			{
+				int digit = PackedCode.pinAt(this._code, i) + 1;
+
+				if(digit < _colors)
+				{
+					this._code = PackedCode.setPin(this._code, i, digit);
+					return;
+				}
+
+				this._code = PackedCode.setPin(this._code, i, 0);
+			}
+		}
+
+		@Override
+		public Spliterator.OfLong trySplit()
+		{
+			long remaining = this._end - this._ordinal;
+			if(remaining < 2)
+				return null;
+
+			//hand the lower half to the new spliterator and continue with the upper half
+			long middle = this._ordinal + remaining / 2;
+			CodeSpliterator lower = new CodeSpliterator(this._ordinal, middle);
+
+			this._ordinal = middle;
+			this._code = packed(middle);
+
+			return lower;
+		}
+
+		@Override
+		public long estimateSize()
+		{
+			return this._end - this._ordinal;
+		}
+
+		@Override
+		public int characteristics()
+		{
+			return ORDERED | SIZED | SUBSIZED | IMMUTABLE | NONNULL | DISTINCT;
+		}
+	}
+}
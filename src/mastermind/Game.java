@@ -1,21 +1,18 @@
 package mastermind;
 
-import java.util.ArrayList;
-import java.util.Arrays;
-import java.util.LinkedList;
-import java.util.List;
-import java.util.Queue;
-
-
 //import javafx.scene.paint.Color;
-import mastermind.console.io.BooleanAnswer;
-import mastermind.console.io.Question;
+import mastermind.console.io.ConsoleDriver;
 import mastermind.dialog.Resources;
+import mastermind.solver.Strategy;
 
 /**
- * A class representing a game of Mastermind. This class is a singleton, use {@code getInstance()} to get the current instance.
+ * The console game of Mastermind. This class is a singleton, use {@code getInstance()} to get the current instance.
+ * <p>The console plays a single GameSession, created when the console loop starts with the Rules set up in the
+ * settings, by driving a {@code Match} in it. The static fields are those settings; changing them does not affect a
+ * session that is already running.
  * @author Tom van Nimwegen
  * @see Mastermind
+ * @see GameSession
  */
 public class Game {
 	
@@ -27,15 +24,15 @@ public class Game {
 	 * The number of turns in one Phase
 	 */
 	public static int TURN_COUNT = 9;
+	/**
+	 * The strategy the computer uses to pick its guesses
+	 */
+	public static Strategy STRATEGY = Strategy.MINIMAX;
 	
-	private Queue<Phase> _phase;
-	private Phase _currentPhase;
-	
-	private List<PinRow> _board;
-	private PinRow _code;
-	
-	private int _playerPoints;
-	private int _computerPoints;
+	/**
+	 * The session played in the console. NULL until the console loop starts
+	 */
+	private GameSession _session;
 	
 	private static boolean _debugMode;
 	
@@ -43,18 +40,6 @@ public class Game {
 	
 	private Game()
 	{
-		this._board = new ArrayList<PinRow>(TURN_COUNT);
-		this._code = new PinRow();
-		this._playerPoints = 0;
-		this._computerPoints = 0;
-	}
-	
-	/**
-	 * Initializes a the instance of the Game class
-	 */
-	private void init()
-	{
-		this._phase = new LinkedList<Phase>(Arrays.asList(new PhaseHuman(), new PhaseComputer()));
 	}
 	
 	/**
@@ -72,79 +57,17 @@ public class Game {
 	}
 	
 	/**
-	 * A method to set the current code that has to be guessed by the other player
-	 * @param pins An Array of pins that represents the code
-	 */
-	public void setCode(Pin... pins)
-	{
-		if(pins.length > Game.PIN_COUNT)
-			throw new IllegalArgumentException(Resources.ERROR_CODE_LONG);
-		
-		if(this._code != null)
-			this._code.clear();
-		else
-			this._code = new PinRow();
-		
-		for (Pin p : pins) 
-		{
-			this._code.addPin(p);
-		}
-	}
-	
-	/**
-	 * A method to set the current code that has to be guessed by the other player
-	 * @param pr A PinRow that contains the code
-	 * @throws IllegalArgumentException if the length of {@code pr} is greater then the maximum number of pins in a PinRow
-	 */
-	public void setCode(PinRow pr)
-	{
-		if(pr.getLength() > Game.PIN_COUNT)
-			throw new IllegalArgumentException(Resources.ERROR_CODE_LONG);
-		
-		this._code = pr;
-//		System.out.println(pr);
-	}
-	
-	/**
-	 * A method to return the current code
-	 * @return Return the current code
-	 */
-	public PinRow getCode()
-	{
-		return this._code;
-	}
-	
-	/**
-	 * A method to return the current amount of points the human player has
-	 * @return Returns the current amount of points the human player has
-	 */
-	public int getPlayerPoints()
-	{
-		return this._playerPoints;
-	}
-	
-	/**
-	 * A method to return the current amount of points the computer player has
-	 * @return Returns the current amount of points the computer player has
-	 */
-	public int getComputerPoints()
-	{
-		return this._computerPoints;
-	}
-	
-	
-	/**
-	 * A method to return a copy of the previous PinRows and their TurnResults
-	 * @return Returns a copy of the previous PinRows and their TurnResults
+	 * A method to return the session played in the console
+	 * @return Returns the session, or NULL if the console loop has not started yet
 	 */
-	public List<PinRow> getBoard()
+	public GameSession getSession()
 	{
-		return new ArrayList<PinRow>(_board);
+		return this._session;
 	}
 	
 	/**
-	 * A method to check if the current game is in debug mode
-	 * @return Returns a boolean that tells if the game is in debug mode. True if in debug mode.
+	 * A method to check if the console is in debug mode
+	 * @return Returns a boolean that tells if the console is in debug mode. True if in debug mode.
 	 */
 	public static boolean isDebugMode()
 	{
@@ -152,11 +75,14 @@ public class Game {
 	}
 	
 	/**
-	 * A method to set the current game to debug mode
+	 * A method to set the console to debug mode. Also sets the session played in the console to debug mode
 	 */
 	public static void setDebugMode(boolean value)
 	{
 		_debugMode = value;
+		
+		if(_instance != null && _instance._session != null)
+			_instance._session.setDebugMode(value);
 	}
 	
 	/**
@@ -165,19 +91,8 @@ public class Game {
 	 */
 	public void showBoard(boolean showLastResult)
 	{
-		if(showLastResult)
-		{
-			PinRow lpr = _board.get(_board.size() - 1);
-			System.out.println(lpr.getResult());
-		}
-		
-		System.out.println(Resources.GAME_BOARD_START);
-		for (int i = 0; i < getBoard().size(); i++) 
-		{
-			PinRow pr = getBoard().get(i);
-			System.out.println( i+1 + ":" + Resources.T1 + pr + Resources.T1 + pr.getResult().toSmallString());
-		}
-		System.out.println(Resources.GAME_BOARD_END);
+		if(this._session != null)
+			System.out.println(this._session.boardToString(showLastResult));
 	}
 	
 	/**
@@ -185,138 +100,22 @@ public class Game {
 	 */
 	public void showScore()
 	{
-		System.out.println(Resources.GAME_POINTS_START);
-		System.out.println(Resources.GAME_COMPUTER + Resources.T1 + getComputerPoints());
-		System.out.println(Resources.GAME_HUMAN + Resources.T2 + getPlayerPoints());
-		System.out.println(Resources.GAME_POINTS_END);
+		if(this._session != null)
+			System.out.println(this._session.scoreToString());
 	}
 	
 	/**
-	 * Adds a turn to the current game.
-	 * @param p the turn to be added
-	 * @return a calculated TurnResult
-	 * 
-	 * @throws IllegalArgumentException if the maximum number of turns is reached
+	 * Plays a Match in the console, until the user does not want to play again
+	 * @see ConsoleDriver
 	 */
-	public TurnResult addTurn(PinRow p)
-	{
-		if(_board.size() >= TURN_COUNT)
-			throw new IllegalArgumentException(Resources.ERROR_MAX_TURNS);
-		
-		TurnResult tr = makeGuess(p);
-		
-		if(_board.size() + 1 >= TURN_COUNT && !tr.hasWon())
-		{
-			tr.setLost();
-			
-			if(this._currentPhase.getClass() == PhaseHuman.class)
-			{
-				this._computerPoints++;
-			}
-			else if(this._currentPhase.getClass() == PhaseHuman.class)
-			{
-				this._playerPoints++;
-			}
-		}
-		
-		if(tr.hasWon())
-		{
-			if(this._currentPhase.getClass() == PhaseHuman.class)
-			{
-				this._playerPoints++;
-			}
-			else if(this._currentPhase.getClass() == PhaseHuman.class)
-			{
-				this._computerPoints++;
-			}
-		}
-		
-		p.addResult(tr);
-		this._board.add(p);
-		
-		return tr;
-	}
-	
-	/**
-	 * Adds a turn to the current game without calculating a TurnResult
-	 * @param p the turn to be added
-	 * 
-	 * @throws IllegalArgumentException if the maximum number of turns is reached
-	 */
-	public void addTurnWithouthResult(PinRow p)
-	{
-		if(_board.size() >= TURN_COUNT)
-			throw new IllegalArgumentException(Resources.ERROR_MAX_TURNS);
-		
-		TurnResult tr = p.getResult();
-		
-		if(_board.size() + 1 >= TURN_COUNT && !tr.hasWon())
-		{
-			tr.setLost();
-			
-			if(this._currentPhase.getClass() == PhaseHuman.class)
-			{
-				this._computerPoints++;
-			}
-			else if(this._currentPhase.getClass() == PhaseComputer.class)
-			{
-				this._playerPoints++;
-			}
-		}
-		
-		if(tr.hasWon())
-		{
-			if(this._currentPhase.getClass() == PhaseHuman.class)
-			{
-				this._playerPoints++;
-			}
-			else if(this._currentPhase.getClass() == PhaseComputer.class)
-			{
-				this._computerPoints++;
-			}
-		}
-		
-		this._board.add(p);
-	}
-	
-	public TurnResult makeGuess(PinRow guess)
-	{
-		TurnResult t = this._code.compareTo(guess);
-		return t;
-	}
-	
 	public void startConsoleLoop()
 	{	
 		try {
 			
-			boolean exit = false;
-		
-			while(!exit)
-			{			
-				init();
-				this._board.clear();
-				this._code = null;
-				
-				for (Phase phase : _phase) 
-				{
-					this._currentPhase = phase;
-					phase.play();
-					
-					this._board.clear();
-					this._code = null;
-					
-					this.showScore();
-					
-				}
-				
-				Question<BooleanAnswer> playagain = new Question<BooleanAnswer>(Resources.EMPTY, Resources.GAME_PLAYAGAIN);
-				
-				if(!playagain.askQuestion(new BooleanAnswer(), Boolean.class))
-				{
-					exit = true;
-				}
-				
-			}
+			this._session = new GameSession(Rules.current());
+			this._session.setDebugMode(_debugMode);
+			
+			ConsoleDriver.run(new Match(this._session));
 		} 
 		catch (Exception e) 
 		{
@@ -0,0 +1,281 @@
+package mastermind;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import mastermind.dialog.Resources;
+
+/**
+ * A single game of Mastermind between one player and the computer: its board, the code to be guessed, the score and
+ * the Rules it is played by.
+ * <p>A session shares no mutable state with other sessions, so any number of them can be played in one process. A
+ * session itself is not thread safe; it is meant to be used by one thread at a time, like the thread of its player.
+ * Use a {@code SessionRegistry} to keep track of sessions from multiple threads.
+ * @author Tom van Nimwegen
+ * @see Rules
+ * @see SessionRegistry
+ */
+public class GameSession
+{
+	/**
+	 * The players of a game
+	 */
+	public enum Player
+	{
+		HUMAN,
+		COMPUTER
+	}
+
+	/**
+	 * The id of the next session
+	 */
+	private static final AtomicLong _nextId = new AtomicLong(1);
+
+	/**
+	 * The unique id of this session
+	 */
+	private final long _id;
+	/**
+	 * The rules of this session
+	 */
+	private final Rules _rules;
+
+	private final List<Turn> _board;
+	private PinRow _code;
+
+	private int _playerPoints;
+	private int _computerPoints;
+
+	/**
+	 * The player guessing the code in the current phase
+	 */
+	private Player _guesser;
+
+	private boolean _debugMode;
+
+	/**
+	 * Constructs a new GameSession with a unique id
+	 * @param rules the rules of the session
+	 */
+	public GameSession(Rules rules)
+	{
+		this._id = _nextId.getAndIncrement();
+		this._rules = rules;
+		this._board = new ArrayList<Turn>(rules.getTurnCount());
+		this._code = null;
+		this._guesser = Player.HUMAN;
+	}
+
+	/**
+	 * Gets the unique id of this session
+	 */
+	public long getId()
+	{
+		return this._id;
+	}
+
+	/**
+	 * Gets the rules of this session
+	 */
+	public Rules getRules()
+	{
+		return this._rules;
+	}
+
+	/**
+	 * Starts a new phase: clears the board and the code
+	 * @param guesser the player guessing the code in the new phase
+	 */
+	public void startPhase(Player guesser)
+	{
+		this.clear();
+		this._guesser = guesser;
+	}
+
+	/**
+	 * Clears the board and the code. The score is kept
+	 */
+	public void clear()
+	{
+		this._board.clear();
+		this._code = null;
+	}
+
+	/**
+	 * Gets the player guessing the code in the current phase
+	 */
+	public Player getGuesser()
+	{
+		return this._guesser;
+	}
+
+	/**
+	 * A method to set the current code that has to be guessed by the other player
+	 * @param pins An Array of pins that represents the code
+	 * @throws IllegalArgumentException if there are more pins than allowed by the rules, or a pin is not allowed by the rules
+	 */
+	public void setCode(Pin... pins)
+	{
+		if(pins.length > this._rules.getPinCount())
+			throw new IllegalArgumentException(String.format(Resources.ERROR_CODE_LONG, this._rules.getPinCount()));
+
+		this.setCode(PinRow.fromArray(pins));
+	}
+
+	/**
+	 * A method to set the current code that has to be guessed by the other player
+	 * @param pr A PinRow that contains the code
+	 * @throws IllegalArgumentException if {@code pr} is longer than allowed by the rules, or contains a pin that is not allowed by the rules
+	 */
+	public void setCode(PinRow pr)
+	{
+		if(pr.getLength() > this._rules.getPinCount())
+			throw new IllegalArgumentException(String.format(Resources.ERROR_CODE_LONG, this._rules.getPinCount()));
+
+		if(!this._rules.isValid(pr))
+			throw new IllegalArgumentException(Resources.ERROR_CODE_INVALID);
+
+		this._code = pr;
+	}
+
+	/**
+	 * A method to return the current code
+	 * @return Return the current code, or NULL if no code is set in the current phase
+	 */
+	public PinRow getCode()
+	{
+		return this._code;
+	}
+
+	/**
+	 * A method to return the current amount of points the human player has
+	 */
+	public int getPlayerPoints()
+	{
+		return this._playerPoints;
+	}
+
+	/**
+	 * A method to return the current amount of points the computer player has
+	 */
+	public int getComputerPoints()
+	{
+		return this._computerPoints;
+	}
+
+	/**
+	 * A method to return a copy of the previous Turns
+	 */
+	public List<Turn> getBoard()
+	{
+		return new ArrayList<Turn>(this._board);
+	}
+
+	/**
+	 * A method to check if this session is in debug mode
+	 */
+	public boolean isDebugMode()
+	{
+		return this._debugMode;
+	}
+
+	/**
+	 * A method to set this session to debug mode
+	 */
+	public void setDebugMode(boolean value)
+	{
+		this._debugMode = value;
+	}
+
+	/**
+	 * Adds a turn to the current phase.
+	 * @param p the code to be added
+	 * @return the new Turn, with a calculated TurnResult
+	 *
+	 * @throws IllegalArgumentException if the maximum number of turns is reached
+	 */
+	public Turn addTurn(PinRow p)
+	{
+		return this.addTurnWithouthResult(p, this.makeGuess(p));
+	}
+
+	/**
+	 * Adds a turn to the current phase without calculating a TurnResult. When the turn ends the phase, the point goes
+	 * to the guesser if the code was guessed and to the other player if it was not.
+	 * @param p the code to be added
+	 * @param tr the result of the turn
+	 * @return the new Turn
+	 *
+	 * @throws IllegalArgumentException if the maximum number of turns is reached
+	 */
+	public Turn addTurnWithouthResult(PinRow p, TurnResult tr)
+	{
+		if(this._board.size() >= this._rules.getTurnCount())
+			throw new IllegalArgumentException(String.format(Resources.ERROR_MAX_TURNS, this._rules.getTurnCount()));
+
+		Turn t = new Turn(p, tr);
+
+		if(this._board.size() + 1 >= this._rules.getTurnCount() && !t.hasWon())
+		{
+			t.setLost();
+			this.addPoint(this._guesser == Player.HUMAN ? Player.COMPUTER : Player.HUMAN);
+		}
+
+		if(t.hasWon())
+			this.addPoint(this._guesser);
+
+		this._board.add(t);
+
+		return t;
+	}
+
+	private void addPoint(Player player)
+	{
+		if(player == Player.HUMAN)
+			this._playerPoints++;
+		else
+			this._computerPoints++;
+	}
+
+	/**
+	 * Gets the result of a guess against the current code
+	 */
+	public TurnResult makeGuess(PinRow guess)
+	{
+		return this._rules.compare(this._code, guess);
+	}
+
+	/**
+	 * Gets the board in text form
+	 * @param showLastResult A boolean to determine whether the result of the last turn is shown above the board
+	 */
+	public String boardToString(boolean showLastResult)
+	{
+		StringBuilder out = new StringBuilder();
+
+		if(showLastResult && !this._board.isEmpty())
+			out.append(this._board.get(this._board.size() - 1).getResult()).append(Resources.NL);
+
+		out.append(Resources.GAME_BOARD_START).append(Resources.NL);
+		for (int i = 0; i < this._board.size(); i++)
+		{
+			Turn t = this._board.get(i);
+			out.append(i + 1).append(":").append(Resources.T1).append(t.getCode()).append(Resources.T1).append(t.getResult().toSmallString()).append(Resources.NL);
+		}
+		out.append(Resources.GAME_BOARD_END);
+
+		return out.toString();
+	}
+
+	/**
+	 * Gets the score of the human and computer player in text form
+	 */
+	public String scoreToString()
+	{
+		return Resources.GAME_POINTS_START + Resources.NL +
+				Resources.GAME_COMPUTER + Resources.T1 + this.getComputerPoints() + Resources.NL +
+				Resources.GAME_HUMAN + Resources.T2 + this.getPlayerPoints() + Resources.NL +
+				Resources.GAME_POINTS_END;
+	}
+}
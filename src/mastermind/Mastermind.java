@@ -1,10 +1,19 @@
 package mastermind;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
 import mastermind.console.io.BooleanAnswer;
 import mastermind.console.io.NewPinAnswer;
 import mastermind.console.io.IntegerAnswer;
 import mastermind.console.io.Question;
+import mastermind.console.io.Special;
+import mastermind.console.io.StrategyAnswer;
 import mastermind.dialog.Resources;
+import mastermind.solver.Strategy;
 
 /**
  * The Mastermind class contains everything to start a new game of mastermind
@@ -22,6 +31,81 @@ public class Mastermind {
 		this._game = Game.getInstance();
 	}
 	
+	/**
+	 * Creates the special input params of a session: exit, debug, score, board, pins and code. All but exit and debug
+	 * only work in debug mode
+	 * @param session gets the session, or NULL if there is no session yet
+	 * @param debugMode tells if debug mode is on
+	 * @param setDebugMode turns debug mode on or off
+	 * @param output receives the lines of text of the specials
+	 * @param exit ends the session
+	 * @return a new list of the specials
+	 * @see Special
+	 */
+	public static List<Special> createSpecials(Supplier<GameSession> session, BooleanSupplier debugMode, Consumer<Boolean> setDebugMode, Consumer<String> output, Runnable exit)
+	{
+		List<Special> specials = new ArrayList<Special>();
+		
+		specials.add(new Special(x -> 
+		{
+			exit.run();
+			return true;
+		}, "x", "exit"));
+		
+		specials.add(new Special(x -> 
+		{
+			setDebugMode.accept(!debugMode.getAsBoolean());
+			output.accept(Resources.GAME_DEBUGMODE_DEBUG + debugMode.getAsBoolean());
+			return true;
+		}, "d", "debug"));
+		
+		specials.add(new Special(x -> 
+		{
+			if(!debugMode.getAsBoolean() || session.get() == null)
+				return false;
+			
+			output.accept(session.get().scoreToString());
+			return true;
+		}, "s", "score"));
+		
+		specials.add(new Special(x -> 
+		{
+			if(!debugMode.getAsBoolean() || session.get() == null)
+				return false;
+			
+			output.accept(session.get().boardToString(false));
+			return true;
+		}, "b", "board"));
+		
+		specials.add(new Special(x -> 
+		{
+			if(!debugMode.getAsBoolean())
+				return false;
+			
+			//the pins of the session, or all pins before the session has started
+			Pin[] pins = session.get() != null ? session.get().getRules().getPalette() : Pin.values();
+			
+			String out = Resources.GAME_DEBUGMODE_PINS;
+			for (Pin p : pins) 
+			{
+				out += "[" + p.getName() + "]";
+			}
+			output.accept(out);
+			return true;
+		}, "p", "pins"));
+		
+		specials.add(new Special(x -> 
+		{
+			if(!debugMode.getAsBoolean() || session.get() == null)
+				return false;
+			
+			output.accept(Resources.GAME_DEBUGMODE_CODE + session.get().getCode());
+			return true;
+		}, "c", "code"));
+		
+		return specials;
+	}
+	
 	public void startConsoleGame()
 	{
 		try 
@@ -33,60 +117,10 @@ public class Mastermind {
 			
 			//add all the special input params
 			//every question will handle these
-			Question.addSpecial(x -> 
-			{
-				System.exit(1);
-				return false;
-			}, "x", "exit");
-			
-			Question.addSpecial(x -> 
-			{
-				Game.setDebugMode(!Game.isDebugMode());
-				System.out.println(Resources.GAME_DEBUGMODE_DEBUG + Game.isDebugMode());
-				return true;
-			}, "d", "debug");
-			
-			Question.addSpecial(x -> 
-			{
-				if(!Game.isDebugMode())
-					return false;
-				
-				this._game.showScore();
-				return true;
-			}, "s", "score");
-			
-			Question.addSpecial(x -> 
-			{
-				if(!Game.isDebugMode())
-					return false;
-				
-				this._game.showBoard(false);
-				return true;
-			}, "b", "board");
-			
-			Question.addSpecial(x -> 
-			{
-				if(!Game.isDebugMode())
-					return false;
-				
-				String out = Resources.GAME_DEBUGMODE_PINS;
-				for (Pin p : Pin.values()) 
-				{
-					out += "[" + p.getName() + "]";
-				}
-				System.out.println(out);
-				return true;
-			}, "p", "pins");
-			
-			Question.addSpecial(x -> 
+			for (Special special : createSpecials(this._game::getSession, Game::isDebugMode, Game::setDebugMode, System.out::println, () -> System.exit(1))) 
 			{
-				if(!Game.isDebugMode())
-					return false;
-				
-				String out = Resources.GAME_DEBUGMODE_CODE + Game.getInstance().getCode();
-				System.out.println(out);
-				return true;
-			}, "c", "code");
+				Question.addSpecial(special);
+			}
 			
 			//ask the user if he wants to go to the settings
 			Question<BooleanAnswer> gotoq = new Question<BooleanAnswer>(Resources.EMPTY, Resources.SETUP_GOTO);
@@ -107,12 +141,16 @@ public class Mastermind {
 				{
 					//ask the user user for the new pincount
 					Question<IntegerAnswer> pincountq = new Question<IntegerAnswer>(Resources.EMPTY, Resources.SETUP_RULES_PINCOUNT_1, Resources.SETUP_RULES_PINCOUNT_2);
-					Game.PIN_COUNT = pincountq.askQuestion(new IntegerAnswer(2, 6), Integer.class);
+					Game.PIN_COUNT = pincountq.askQuestion(new IntegerAnswer(2, PackedCode.MAX_PINS), Integer.class);
 					
 					//ask the user user for the new turncount
 					Question<IntegerAnswer> turncountq = new Question<IntegerAnswer>(Resources.EMPTY, Resources.SETUP_RULES_TURNCOUNT_1, Resources.SETUP_RULES_TURNCOUNT_2);
 					Game.TURN_COUNT = turncountq.askQuestion(new IntegerAnswer(5, Integer.MAX_VALUE), Integer.class);
 					
+					//ask the user which strategy the computer should use
+					Question<StrategyAnswer> strategyq = new Question<StrategyAnswer>(Resources.EMPTY, Resources.SETUP_STRATEGY, Resources.SETUP_STRATEGY_DEFAULT);
+					Game.STRATEGY = strategyq.askQuestion(new StrategyAnswer(), Strategy.class);
+					
 					boolean addpins = true;
 					
 					//start addpin loop
@@ -0,0 +1,128 @@
+package mastermind;
+
+import java.util.Arrays;
+import java.util.LinkedList;
+import java.util.Queue;
+
+import mastermind.console.io.BooleanAnswer;
+import mastermind.console.io.Question;
+import mastermind.dialog.Resources;
+
+/**
+ * A StepMachine playing rounds of Mastermind in a GameSession. Every round is a human phase followed by a computer
+ * phase; after every phase the score is shown, and after every round the user is asked whether to play again.
+ * @author Tom van Nimwegen
+ * @see Phase
+ * @see GameSession
+ */
+public class Match extends StepMachine
+{
+	/**
+	 * The session the rounds are played in
+	 */
+	private final GameSession _session;
+	/**
+	 * The phases of the current round that were not started yet
+	 */
+	private Queue<Phase> _phase;
+	/**
+	 * The phase being played. NULL between rounds
+	 */
+	private Phase _currentPhase;
+
+	/**
+	 * Constructs a new Match
+	 * @param session the session to play the rounds in
+	 */
+	public Match(GameSession session)
+	{
+		this._session = session;
+	}
+
+	/**
+	 * Gets the session the rounds are played in
+	 */
+	public GameSession getSession()
+	{
+		return this._session;
+	}
+
+	@Override
+	public Step start()
+	{
+		return this.round(new StringBuilder());
+	}
+
+	@Override
+	public Step submit(String input)
+	{
+		//between rounds the match asks its own question
+		if(this._currentPhase == null)
+			return super.submit(input);
+
+		Step step = this._currentPhase.submit(input);
+
+		if(!step.isDone())
+			return step;
+
+		return this.next(new StringBuilder(step.getOutput()));
+	}
+
+	@Override
+	public void close()
+	{
+		if(this._currentPhase != null)
+			this._currentPhase.close();
+	}
+
+	@Override
+	protected Step accept(Object value)
+	{
+		//the answer to play again
+		if((Boolean)value)
+			return this.round(new StringBuilder());
+
+		return this.finish(new StringBuilder());
+	}
+
+	/**
+	 * Starts a new round
+	 */
+	private Step round(StringBuilder out)
+	{
+		this._phase = new LinkedList<Phase>(Arrays.asList(new PhaseHuman(this._session), new PhaseComputer(this._session)));
+		this._session.clear();
+
+		return this.next(out);
+	}
+
+	/**
+	 * Starts the next phase of the round, or asks to play again when the round is over
+	 */
+	private Step next(StringBuilder out)
+	{
+		//phases that end right away, because of an error, are skipped
+		while(!this._phase.isEmpty())
+		{
+			if(this._currentPhase != null)
+			{
+				this._session.clear();
+				line(out, this._session.scoreToString());
+			}
+
+			this._currentPhase = this._phase.poll();
+			Step step = this._currentPhase.start();
+			out.append(step.getOutput());
+
+			if(!step.isDone())
+				return new Step(out.toString(), step.getQuestion(), step.getAnswer(), false);
+		}
+
+		this._currentPhase = null;
+		this._session.clear();
+		line(out, this._session.scoreToString());
+
+		Question<BooleanAnswer> playagain = new Question<BooleanAnswer>(Resources.EMPTY, Resources.GAME_PLAYAGAIN);
+		return this.ask(out, playagain, new BooleanAnswer());
+	}
+}
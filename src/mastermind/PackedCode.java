@@ -0,0 +1,186 @@
+package mastermind;
+
+/**
+ * A utility class for codes that are packed into a single {@code long}.
+ * <p>Every position of a code takes up {@code BITS_PER_PIN} bits holding the ordinal of its Pin,
+ * position 0 being stored in the lowest bits. A feedback (black and white pins) is packed into a single
+ * {@code int} as {@code black * (length + 1) + white}.
+ * <p>None of the methods in this class allocate, so they can be used in the hot loops of the computer player.
+ * @author Tom van Nimwegen
+ * @see PinRow
+ */
+public final class PackedCode
+{
+	/**
+	 * The number of bits used for a single position in a packed code
+	 */
+	public static final int BITS_PER_PIN = 6;
+	/**
+	 * The maximum number of positions that fit in a packed code
+	 */
+	public static final int MAX_PINS = Long.SIZE / BITS_PER_PIN;
+	/**
+	 * The maximum number of different Pins that fit in a single position
+	 */
+	public static final int MAX_COLORS = 1 << BITS_PER_PIN;
+	/**
+	 * The mask for a single position
+	 */
+	private static final long PIN_MASK = MAX_COLORS - 1;
+
+	private PackedCode()
+	{
+	}
+
+	/**
+	 * Packs an array of Pin ordinals into a single code
+	 * @param ordinals the ordinals of the Pins, position 0 first
+	 * @return the packed code
+	 * @throws IllegalArgumentException if there are too many ordinals or if an ordinal does not fit
+	 */
+	public static long pack(int... ordinals)
+	{
+		if(ordinals.length > MAX_PINS)
+			throw new IllegalArgumentException("length (" + ordinals.length + ") " + "is larger then the maximum number of pins (" + MAX_PINS + ")");
+
+		long code = 0;
+		for (int i = 0; i < ordinals.length; i++)
+		{
+			code = setPin(code, i, ordinals[i]);
+		}
+
+		return code;
+	}
+
+	/**
+	 * Gets the Pin ordinal at a position in a packed code
+	 * @param code the packed code
+	 * @param index the position
+	 * @return the ordinal of the Pin at {@code index}
+	 */
+	public static int pinAt(long code, int index)
+	{
+		return (int)((code >>> (index * BITS_PER_PIN)) & PIN_MASK);
+	}
+
+	/**
+	 * Sets the Pin ordinal at a position in a packed code
+	 * @param code the packed code
+	 * @param index the position
+	 * @param ordinal the ordinal of the new Pin
+	 * @return a new packed code with the Pin at {@code index} replaced
+	 * @throws IllegalArgumentException if the ordinal does not fit in a position
+	 */
+	public static long setPin(long code, int index, int ordinal)
+	{
+		if(ordinal < 0 || ordinal >= MAX_COLORS)
+			throw new IllegalArgumentException("ordinal (" + ordinal + ") does not fit in a packed code");
+
+		int shift = index * BITS_PER_PIN;
+		return (code & ~(PIN_MASK << shift)) | ((long)ordinal << shift);
+	}
+
+	/**
+	 * Gets a mask that covers the first {@code length} positions of a packed code
+	 * @param length the number of positions
+	 * @return a mask with all the bits of the first {@code length} positions set
+	 */
+	public static long mask(int length)
+	{
+		int bits = length * BITS_PER_PIN;
+		return bits >= Long.SIZE ? -1L : (1L << bits) - 1;
+	}
+
+	/**
+	 * Scores a guess against a secret code. This is the allocation free counterpart of {@code PinRow.compareTo(PinRow)}.
+	 * @param guess the packed guess
+	 * @param secret the packed secret code
+	 * @param length the number of positions in both codes
+	 * @return the packed feedback. Use {@code blacks(int, int)} and {@code whites(int, int)} to unpack it
+	 */
+	public static int score(long guess, long secret, int length)
+	{
+		int black = 0;
+		int white = 0;
+
+		//bit masks of the positions that have already been matched
+		int guessUsed = 0;
+		int secretUsed = 0;
+
+		//count all the pins that are in the right place
+		for (int i = 0; i < length; i++)
+		{
+			if(pinAt(guess, i) == pinAt(secret, i))
+			{
+				black++;
+				guessUsed |= 1 << i;
+				secretUsed |= 1 << i;
+			}
+		}
+
+		//match all the leftover pins of the guess with the leftover pins of the secret
+		for (int i = 0; i < length; i++)
+		{
+			if((guessUsed & (1 << i)) != 0)
+				continue;
+
+			int pin = pinAt(guess, i);
+
+			for (int j = 0; j < length; j++)
+			{
+				if((secretUsed & (1 << j)) == 0 && pinAt(secret, j) == pin)
+				{
+					white++;
+					secretUsed |= 1 << j;
+					break;
+				}
+			}
+		}
+
+		return feedback(black, white, length);
+	}
+
+	/**
+	 * Packs a number of black and white pins into a single feedback value
+	 * @param black the number of correctly placed pins
+	 * @param white the number of correctly colored pins
+	 * @param length the number of positions in a code
+	 * @return the packed feedback
+	 */
+	public static int feedback(int black, int white, int length)
+	{
+		return black * (length + 1) + white;
+	}
+
+	/**
+	 * Gets the number of black pins from a packed feedback
+	 * @param feedback the packed feedback
+	 * @param length the number of positions in a code
+	 * @return the number of correctly placed pins
+	 */
+	public static int blacks(int feedback, int length)
+	{
+		return feedback / (length + 1);
+	}
+
+	/**
+	 * Gets the number of white pins from a packed feedback
+	 * @param feedback the packed feedback
+	 * @param length the number of positions in a code
+	 * @return the number of correctly colored pins
+	 */
+	public static int whites(int feedback, int length)
+	{
+		return feedback % (length + 1);
+	}
+
+	/**
+	 * Gets the number of possible packed feedback values for a code length. All packed feedbacks are smaller than this number.
+	 * @param length the number of positions in a code
+	 * @return the number of possible packed feedback values
+	 */
+	public static int feedbackCount(int length)
+	{
+		return (length + 1) * (length + 1);
+	}
+}
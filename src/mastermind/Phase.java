@@ -1,32 +1,46 @@
 package mastermind;
 
 //import mastermind.Game.Pin;
+import mastermind.console.io.ConsoleDriver;
 import mastermind.dialog.Resources;
 
 /**
- * The base class for all Phases
+ * The base class for all Phases. A Phase is a StepMachine, see {@code start()} and {@code submit(String)}
  * @author Tom van Nimwegen
  *
  */
-public class Phase {
+public abstract class Phase extends StepMachine {
 	
 	/**
-	 * The game belonging to this Phase
+	 * The session belonging to this Phase
 	 */
-	public Game g;
+	public GameSession g;
 	
 	/**
-	 * Constructs a new instance of the Phase class. Also sets {@code g} to the current instance of the Game class
+	 * Constructs a new instance of the Phase class
+	 * @param session the session this Phase is played in
 	 */
-	public Phase()
+	public Phase(GameSession session)
 	{
-		g = Game.getInstance();
+		g = session;
 	}
-		
+	
+	/**
+	 * Plays this Phase in the console, blocking until it is done
+	 * @see ConsoleDriver
+	 */
 	public void play()
 	{
-		System.out.println(Resources.GAME_HELP_START);		
-		System.out.println(Resources.TUTORIAL_GAME_QUIT);
-		System.out.println(Resources.GAME_HELP_END);
+		ConsoleDriver.run(this);
+	}
+	
+	/**
+	 * Adds the input help shown at the start of every Phase to the output of a step
+	 */
+	protected void help(StringBuilder out)
+	{
+		line(out, Resources.GAME_HELP_START);
+		line(out, Resources.TUTORIAL_GAME_QUIT);
+		line(out, Resources.GAME_HELP_END);
 	}
 }
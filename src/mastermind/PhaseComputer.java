@@ -1,12 +1,24 @@
 package mastermind;
 
-import java.util.LinkedList;
-import java.util.List;
 import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Supplier;
 
 import mastermind.console.io.IntegerAnswer;
+import mastermind.console.io.PinRowAnswer;
 import mastermind.console.io.Question;
 import mastermind.dialog.Resources;
+import mastermind.solver.BookStrategy;
+import mastermind.solver.CachingStrategy;
+import mastermind.solver.FeedbackTable;
+import mastermind.solver.GuessStrategy;
+import mastermind.solver.OpeningBook;
+import mastermind.solver.Solver;
+import mastermind.solver.SolverCache;
+import mastermind.solver.Strategy;
+import mastermind.solver.TranspositionCache;
 
 /**
  * The computer phase in a Mastermind game
@@ -16,170 +28,283 @@ import mastermind.dialog.Resources;
 public class PhaseComputer extends Phase {
 
 	/**
-	 * All current correct pairs
+	 * The strategy the computer uses when there are too many pairs to go through, see {@code Solver.ENUMERATION_LIMIT}
 	 */
-	private List<PinRow> pairs;
+	public static Strategy LARGE_STRATEGY = Strategy.ANYTIME;
+	
+	/**
+	 * The feedback of every possible pair against every other pair, by code space. Built on first use and shared by all sessions
+	 */
+	private static final ConcurrentMap<CodeSpace, CompletableFuture<FeedbackTable>> tables = new ConcurrentHashMap<CodeSpace, CompletableFuture<FeedbackTable>>();
+	/**
+	 * The precomputed guesses of a strategy for every possible answer, by code space and then by strategy. Only
+	 * deterministic strategies have a book. A future completes with NULL if there are too many pairs for a book
+	 */
+	private static final ConcurrentMap<CodeSpace, ConcurrentMap<Strategy, CompletableFuture<OpeningBook>>> books = new ConcurrentHashMap<CodeSpace, ConcurrentMap<Strategy, CompletableFuture<OpeningBook>>>();
+	/**
+	 * The current correct pairs and the pairs already played by the computer
+	 */
+	private Solver solver;
+	/**
+	 * The question the user is answering
+	 */
+	private State state;
 	/**
-	 * All possible pairs
+	 * The current guess of the computer
 	 */
-	private static List<PinRow> allpairs = PinRow.getAllPairs();
+	private PinRow pr;
 	/**
-	 * Pairs already played by the computer
+	 * The amount of black pins the user gave for the current guess
 	 */
-	private List<PinRow> madePairs;
+	private int blackPinCount;
+	
+	/**
+	 * The questions of the computer phase
+	 */
+	private enum State
+	{
+		/**
+		 * The secret code of the user, only asked in debug mode
+		 */
+		SECRET,
+		/**
+		 * The amount of black pins of the current guess
+		 */
+		BLACK,
+		/**
+		 * The amount of white pins of the current guess
+		 */
+		WHITE
+	}
 	
 	private static final int MESSAGE_ITTERATION_COUNT = 5000;
 	
+	/**
+	 * Constructs a new computer phase
+	 * @param session the session this Phase is played in
+	 */
+	public PhaseComputer(GameSession session)
+	{
+		super(session);
+	}
+	
+	/**
+	 * Creates a Solver for the rules of a session. Strategies are not thread safe, so every Solver gets its own; the
+	 * feedback table and book are read-only and shared by all sessions with the same rules
+	 * @param rules the rules of the session
+	 * @return a new Solver without history, using the strategy of the rules or {@code LARGE_STRATEGY}
+	 */
+	public static Solver createSolver(Rules rules)
+	{
+		CodeSpace space = rules.getSpace();
+		
+		//there are too many pairs to keep track of, only keep the history
+		if(!Solver.canEnumerate(space))
+			return new Solver(space, LARGE_STRATEGY.create(), new Random());
+		
+		GuessStrategy strategy = rules.getStrategy().create();
+		String palette = SolverCache.palette(rules.getPalette());
+		
+		//load the feedback table the first time the computer plays with these rules
+		FeedbackTable t = load(tables, space, () -> FeedbackTable.cached(space, SolverCache.getDefault(), palette));
+		
+		//load the book of the strategy, so most guesses are a simple lookup
+		//the guesses of a random, sampling or timed strategy would be the same in every game, so it has no book
+		OpeningBook b = null;
+		if(rules.getStrategy().isDeterministic())
+		{
+			ConcurrentMap<Strategy, CompletableFuture<OpeningBook>> spaceBooks = books.computeIfAbsent(space, s -> new ConcurrentHashMap<Strategy, CompletableFuture<OpeningBook>>());
+			b = load(spaceBooks, rules.getStrategy(), () -> OpeningBook.cached(t, strategy, SolverCache.getDefault(), palette));
+		}
+		
+		//reuse the guesses other sessions made in the same state, mostly the turns after the book
+		GuessStrategy cached = strategy;
+		if(rules.getStrategy().isDeterministic())
+			cached = new CachingStrategy(TranspositionCache.getShared(), rules.getStrategy().getName(), strategy);
+		
+		//init the solver, which holds the pairs and madePairs
+		return new Solver(t, b != null ? new BookStrategy(b, cached) : cached, new Random());
+	}
+	
+	/**
+	 * Gets a value shared by all sessions, loading it the first time. Only sessions that need the same value wait for
+	 * each other while it loads
+	 * @param map the loaded values by key
+	 * @param key the key of the value
+	 * @param loader loads the value
+	 * @return the value
+	 */
+	private static <K, V> V load(ConcurrentMap<K, CompletableFuture<V>> map, K key, Supplier<V> loader)
+	{
+		CompletableFuture<V> future = map.get(key);
+		
+		if(future == null)
+		{
+			CompletableFuture<V> created = new CompletableFuture<V>();
+			future = map.putIfAbsent(key, created);
+			
+			//this session loads the value, the others wait for it
+			if(future == null)
+			{
+				future = created;
+				try
+				{
+					created.complete(loader.get());
+				}
+				catch(RuntimeException | Error e)
+				{
+					//the sessions waiting for the value fail as well, the next session tries again
+					map.remove(key, created);
+					created.completeExceptionally(e);
+					throw e;
+				}
+			}
+		}
+		
+		return future.join();
+	}
+	
 	@Override
-	public void play() 
+	public Step start() 
 	{
+		StringBuilder out = new StringBuilder();
+		
 		try {
-			//init pairs and madePairs				
-			pairs = new LinkedList<PinRow>(allpairs);
-			madePairs = new LinkedList<PinRow>();
+			g.startPhase(GameSession.Player.COMPUTER);
 			
-			//init loop vars
-			boolean exit = false;
-			boolean won = false;
-			boolean lost = false;
+			solver = createSolver(g.getRules());
 			
 			//show some flavor text for this phase
-			System.out.println(Resources.EMPTY);
-			System.out.println(Resources.FLAVOR_OPENING_PHASE2_HELLO_1);
-			System.out.println(Resources.FLAVOR_OPENING_PHASE2_HELLO_2);
+			line(out, Resources.EMPTY);
+			line(out, Resources.FLAVOR_OPENING_PHASE2_HELLO_1);
+			line(out, Resources.FLAVOR_OPENING_PHASE2_HELLO_2);
 			
-			//run the super play method with input help
-			super.play();
+			//show the input help
+			this.help(out);
 			
 			//check if the game is in debug mode
-			if(Game.isDebugMode())
+			if(g.isDebugMode())
 			{
 				//if the game is in debug mode let the user input his secret code
-				Question<PinRow> scode = new Question<PinRow>(Resources.FLAVOR_OPENING_PHASE2_PREFIX);
-				PinRow pinrowq = scode.askQuestion(new PinRow(), PinRow.class);
-				g.setCode(pinrowq);
-			}
-			
-			//create a new random for picking random pairs
-			Random r = new Random();
-							
-			//pick an initial first guess
-			PinRow pr = allpairs.get(r.nextInt(allpairs.size()));
-			madePairs.add(pr);
-			
-			//while exit if false this loop will run
-			while(!exit)
-			{
-				//setup two local vars to contain pin counts
-				int blackPinCount = 0;
-				int whitePinCount = 0;
-				
-				//if there is a code set by the user display it
-				if(g.getCode() != null)
-					System.out.println(Resources.PHASE2_CODE + Resources.T1 + g.getCode());
-				
-				//show the computers guess
-				System.out.println(Resources.PHASE2_CGUESS + Resources.T1 + pr + Resources.NL);
-				
-				//check if the game is in debug mode
-				if(Game.isDebugMode())
-				{
-					//if the game is in debug mode show some debug info
-					//-Result: displays the correct answer
-					//-Can win: displays if the correct code is in the pairs list, if it's in there the computer can guess it
-					//-Pair count: the amount of remaining pairs
-					System.out.println(Resources.GAME_DEBUGMODE_START);
-					if(g.getCode() != null)
-					{
-						System.out.println(Resources.PHASE2_DEBUG_1 + Resources.T2 + g.getCode().compareTo(pr).toSmallString());
-						boolean check3 = pairs.stream().anyMatch(x -> x.equals(g.getCode()));
-						System.out.println(Resources.PHASE2_DEBUG_2 + Resources.T2  + check3);
-					}
-					System.out.println(Resources.PHASE2_DEBUG_3 + Resources.T1  + pairs.size());
-					System.out.println(Resources.GAME_DEBUGMODE_END);
-				}
-				
-				//ask the user for the amount of black pins
-				Question<IntegerAnswer> blackc = new Question<IntegerAnswer>(Resources.PHASE2_BLACKPIN);
-				blackPinCount = blackc.askQuestion(new IntegerAnswer(0, Game.PIN_COUNT), Integer.class);
-				
-				//ask the user for the amount of white pins
-				Question<IntegerAnswer> whitec = new Question<IntegerAnswer>(Resources.PHASE2_WHITEPIN);
-				whitePinCount = whitec.askQuestion(new IntegerAnswer(0, Game.PIN_COUNT - blackPinCount), Integer.class);
-						
-				//create a new turnresult with the numbers given by the user
-				TurnResult tr = new TurnResult(blackPinCount, whitePinCount);
-				//add the result to the computers guess
-				pr.addResult(tr);
-				
-				//add the guess of the computer to the gameboard
-				g.addTurnWithouthResult(pr);
-				
-				//if the game was won exit
-				if(tr.hasWon())
-				{
-					won = true;
-					exit = true;
-					break;
-				}
-				
-				//if the game was lost exit
-				if(tr.hasLost())
-				{
-					exit = true;
-					lost = true;
-					break;
-				}
-				
-				//create iterationcount for debug purposes
-				int iterationcount = MESSAGE_ITTERATION_COUNT;
-				
-				//calculate all possible pairs
-				for (PinRow pinRow : allpairs) 
-				{
-					//remove all pairs that do not have the same answer as the last turn
-					//also remove the pair if it has already been guessed
-					if(!pr.compareTo(pinRow).equals(tr) || madePairs.contains(pinRow))
-					{
-						pairs.remove(pinRow);
-					}
-					
-					iterationcount--;
-					
-					if(iterationcount <= 0)
-					{
-						//display a message to show the user that the computer is 
-						//still calculating
-						iterationcount = MESSAGE_ITTERATION_COUNT;
-						System.out.println(Resources.PHASE2_CALCULATING);
-					}
-				}
-				
-				if(pairs.size() <= 0)
-				{
-					pairs = new LinkedList<PinRow>(allpairs);
-				}					
-				
-				pr = pairs.get(r.nextInt(pairs.size()));
-				madePairs.add(pr);
-				
-				g.showBoard(false);
+				this.state = State.SECRET;
+				Question<PinRowAnswer> scode = new Question<PinRowAnswer>(Resources.FLAVOR_OPENING_PHASE2_PREFIX);
+				return this.ask(out, scode, new PinRowAnswer(g.getRules()));
 			}
 			
-			if(won)
-				System.out.println(Resources.FLAVOR_GAME_LOST);
-			
-			if(lost)
-				System.out.println(Resources.FLAVOR_GAME_WON);			
-			
+			return this.guess(out);
 		} 
 		catch (Exception e) {
-			System.out.println(Resources.GAME_INPUT_PREFIX + Resources.ERROR_PREFIX + e.getMessage());
+			return this.fail(out, e);
 		} 
-		
 	}
 	
+	@Override
+	protected Step finish(StringBuilder out)
+	{
+		this.close();
+		return super.finish(out);
+	}
 	
+	@Override
+	public void close()
+	{
+		//the histograms of the strategy count toward a limit shared by all sessions
+		if(solver != null)
+			solver.release();
+	}
 	
+	@Override
+	protected Step accept(Object value)
+	{
+		StringBuilder out = new StringBuilder();
+		int pins = g.getRules().getPinCount();
+		
+		switch (this.state) {
+		case SECRET:
+			g.setCode((PinRow)value);
+			return this.guess(out);
+			
+		case BLACK:
+			//ask the user for the amount of white pins
+			this.blackPinCount = (Integer)value;
+			this.state = State.WHITE;
+			Question<IntegerAnswer> whitec = new Question<IntegerAnswer>(Resources.PHASE2_WHITEPIN);
+			return this.ask(out, whitec, new IntegerAnswer(0, pins - this.blackPinCount));
+			
+		default:
+			//the amount of white pins, get the turnresult for the numbers given by the user
+			TurnResult tr = TurnResult.valueOf(this.blackPinCount, (Integer)value, pins);
+			//add the guess of the computer and its result to the gameboard
+			Turn t = g.addTurnWithouthResult(this.pr, tr);
+			
+			//if the game was won exit
+			if(t.hasWon())
+			{
+				line(out, Resources.FLAVOR_GAME_LOST);
+				return this.finish(out);
+			}
+			
+			//if the game was lost exit
+			if(t.hasLost())
+			{
+				line(out, Resources.FLAVOR_GAME_WON);
+				return this.finish(out);
+			}
+			
+			//display a message to show the user that the computer is 
+			//still calculating when there are a lot of pairs to go through
+			if(!solver.isEnumerated() || solver.getCandidates().size() > MESSAGE_ITTERATION_COUNT)
+				line(out, Resources.PHASE2_CALCULATING);
+			
+			//remove all pairs that do not have the same answer as the last turn
+			//also remove the pair if it has already been guessed
+			solver.addFeedback(this.pr.toPacked(), tr.getFeedback());
+			
+			line(out, g.boardToString(false));
+			return this.guess(out);
+		}
+	}
 	
+	/**
+	 * Picks the next guess, shows it and asks the user for the amount of black pins
+	 */
+	private Step guess(StringBuilder out)
+	{
+		Rules rules = g.getRules();
+		this.pr = PinRow.fromPacked(solver.nextGuess(), rules.getPinCount());
+		
+		//if there is a code set by the user display it
+		if(g.getCode() != null)
+			line(out, Resources.PHASE2_CODE + Resources.T1 + g.getCode());
+		
+		//show the computers guess
+		line(out, Resources.PHASE2_CGUESS + Resources.T1 + this.pr + Resources.NL);
+		
+		//check if the game is in debug mode
+		if(g.isDebugMode())
+		{
+			//if the game is in debug mode show some debug info
+			//-Result: displays the correct answer
+			//-Can win: displays if the correct code is in the pairs list, if it's in there the computer can guess it
+			//-Pair count: the amount of remaining pairs
+			//-Cache: the hits and misses of the guesses shared between sessions
+			line(out, Resources.GAME_DEBUGMODE_START);
+			if(g.getCode() != null)
+			{
+				line(out, Resources.PHASE2_DEBUG_1 + Resources.T2 + rules.compare(g.getCode(), this.pr).toSmallString());
+				boolean check3 = solver.isCandidate(g.getCode().toPacked());
+				line(out, Resources.PHASE2_DEBUG_2 + Resources.T2  + check3);
+			}
+			if(solver.isEnumerated())
+				line(out, Resources.PHASE2_DEBUG_3 + Resources.T1  + solver.getCandidates().size());
+			if(rules.getStrategy().isDeterministic())
+				line(out, Resources.PHASE2_DEBUG_4 + Resources.T2  + TranspositionCache.getShared());
+			line(out, Resources.GAME_DEBUGMODE_END);
+		}
+		
+		//ask the user for the amount of black pins
+		this.state = State.BLACK;
+		Question<IntegerAnswer> blackc = new Question<IntegerAnswer>(Resources.PHASE2_BLACKPIN);
+		return this.ask(out, blackc, new IntegerAnswer(0, rules.getPinCount()));
+	}
 }
@@ -1,5 +1,8 @@
 package mastermind;
 
+import java.util.Random;
+
+import mastermind.console.io.PinRowAnswer;
 import mastermind.console.io.Question;
 import mastermind.dialog.Resources;
 
@@ -10,71 +13,83 @@ import mastermind.dialog.Resources;
  */
 public class PhaseHuman extends Phase
 {
+	/**
+	 * Constructs a new human phase
+	 * @param session the session this Phase is played in
+	 */
+	public PhaseHuman(GameSession session)
+	{
+		super(session);
+	}
+	
+	/**
+	 * The number of the next guess, starting at 1
+	 */
+	private int _guessCount;
+	
 	@Override
-	public void play() 
+	public Step start() 
 	{
+		StringBuilder out = new StringBuilder();
+		
 		try {
-			System.out.println(Resources.EMPTY);
-			System.out.println(Resources.FLAVOR_OPENING_PHASE1_HELLO_1);
-			g.setCode(PinRow.createRandom());
+			g.startPhase(GameSession.Player.HUMAN);
 			
-			if(Game.isDebugMode())
-			{
-				System.out.println(Resources.GAME_DEBUGMODE_START);
-				System.out.println(g.getCode());
-				System.out.println(Resources.GAME_DEBUGMODE_END);
-			}
-			
-			super.play();
+			line(out, Resources.EMPTY);
+			line(out, Resources.FLAVOR_OPENING_PHASE1_HELLO_1);
+			g.setCode(g.getRules().createRandom(new Random()));
 			
-			boolean exit = false;
-			boolean won = false;
-			boolean lost = false;
-			int guesscount = 1;
-				
-			while(!exit)
+			if(g.isDebugMode())
 			{
-					
-				if(guesscount > Game.TURN_COUNT)
-				{
-					exit = true;
-					break;
-				}
-				
-				//ask the user to make a guess
-				Question<PinRow> testQ = new Question<PinRow>(Resources.PHASE1_PREFIX + guesscount);
-				PinRow pinrowq = testQ.askQuestion(new PinRow(), PinRow.class);
-				TurnResult tr = g.addTurn(pinrowq);
-				
-				if(tr.hasWon())
-				{
-					exit = true;
-					won = true;
-				}
-				
-				if(tr.hasLost())
-				{
-					exit = true;
-					lost = true;
-				}
-				
-				
-				g.showBoard(true);
-				guesscount++;
+				line(out, Resources.GAME_DEBUGMODE_START);
+				line(out, g.getCode());
+				line(out, Resources.GAME_DEBUGMODE_END);
 			}
 			
-			if(won)
-				System.out.println(Resources.FLAVOR_GAME_WON);
+			this.help(out);
 			
-			if(lost)
-				System.out.println(Resources.FLAVOR_GAME_LOST);
-					
+			this._guessCount = 1;
+			return this.askGuess(out);
 		} 
 		catch (Exception e) 
 		{
-			System.out.println(Resources.GAME_INPUT_PREFIX + Resources.ERROR_PREFIX + e.getMessage());
+			return this.fail(out, e);
 		} 
+	}
+	
+	/**
+	 * Asks the user to make a guess
+	 */
+	private Step askGuess(StringBuilder out)
+	{
+		Question<PinRowAnswer> testQ = new Question<PinRowAnswer>(Resources.PHASE1_PREFIX + this._guessCount);
+		return this.ask(out, testQ, new PinRowAnswer(g.getRules()));
+	}
+	
+	@Override
+	protected Step accept(Object value)
+	{
+		StringBuilder out = new StringBuilder();
+		Turn tr = g.addTurn((PinRow)value);
+		
+		line(out, g.boardToString(true));
+		this._guessCount++;
+		
+		if(tr.hasWon())
+		{
+			line(out, Resources.FLAVOR_GAME_WON);
+			return this.finish(out);
+		}
+		
+		if(tr.hasLost())
+		{
+			line(out, Resources.FLAVOR_GAME_LOST);
+			return this.finish(out);
+		}
 		
+		if(this._guessCount > g.getRules().getTurnCount())
+			return this.finish(out);
 		
+		return this.askGuess(out);
 	}
 }
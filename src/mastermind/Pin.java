@@ -1,11 +1,15 @@
 package mastermind;
 
-import java.util.ArrayList;
-import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import mastermind.dialog.Resources;
 
 /**
- * A class used to define a Pin in a PinRow
+ * A class used to define a Pin in a PinRow.
+ * <p>Every valid Pin is registered once with {@code addValue}, which gives it a stable ordinal. Registered Pins are
+ * unique by name, so two Pins are only equal when they are the same instance.
  * @author Tom
  * @see PinRow
  */
@@ -16,13 +20,29 @@ public class Pin
 	 */
 	public static final Pin EMPTY = new Pin("");
 	/**
-	 * A static list off all possible Pins
+	 * The number of characters that are looked up in {@code _byChar}
+	 */
+	private static final int CHAR_TABLE_SIZE = 128;
+	/**
+	 * A snapshot of all possible Pins, indexed by ordinal. Replaced whenever a Pin is added
 	 */
-	private static List<Pin> _values;
+	private static volatile Pin[] _values = new Pin[0];
+	/**
+	 * All possible Pins with a single ASCII character as name, indexed by that character
+	 */
+	private static volatile Pin[] _byChar = new Pin[CHAR_TABLE_SIZE];
+	/**
+	 * All possible Pins by name
+	 */
+	private static final Map<String, Pin> _byName = new HashMap<String, Pin>();
 	/**
 	 * The name associated to this pin
 	 */
 	private String _name;
+	/**
+	 * The ordinal of this pin. -1 if this Pin is not a valid Pin
+	 */
+	private int _ordinal;
 
 	/**
 	 * Constructs a new instance of the Pin class
@@ -31,6 +51,7 @@ public class Pin
 	public Pin(String name) 
 	{
 		this._name = name;
+		this._ordinal = -1;
 	}
 
 	/**
@@ -41,6 +62,15 @@ public class Pin
 		return this._name;
 	}
 
+	/**
+	 * Gets the ordinal of this Pin. The ordinal is the index of the Pin in {@code values()}
+	 * @return the ordinal of this Pin. Returns -1 if this Pin is not a valid Pin
+	 */
+	public int getOrdinal()
+	{
+		return this._ordinal;
+	}
+
 	/**
 	 * Checks if a Pin with name {@code s} exists in the list of all Pins
 	 * @param s the name of the Pin you want to validate
@@ -48,53 +78,62 @@ public class Pin
 	 */
 	public static boolean isValid(String s) 
 	{
-		//loop through all pin values
-		for (Pin p : Pin.values())
-		{
-			//if a pin with name is is found return true
-			if (s.equals(p.getName())) 
-			{
-				return true;
-			}
-		}
-
-		//nothing was found, return false
-		return false;
+		return valueOf(s) != null;
 	}
 
 	/**
-	 * A method to return an array of all valid Pins
+	 * A method to return an array of all valid Pins, indexed by ordinal.
+	 * <p>The array is a shared snapshot and is not copied, so it must not be changed. Adding a Pin creates a new snapshot.
 	 */
 	public static Pin[] values() 
 	{
-		//create a new empty array with the same length as _values
-		Pin[] parr = new Pin[_values.size()];
+		return _values;
+	}
 
-		//copy all the elements from _values to parr
-		for (int i = 0; i < parr.length; i++) 
-		{
-			parr[i] = _values.get(i);
-		}
+	/**
+	 * Gets the ordinal of a Pin. The ordinal is the index of the Pin in the list of all Pins
+	 * @param p the Pin
+	 * @return the ordinal of {@code p}. Returns -1 if {@code p} is not a valid Pin
+	 */
+	public static int ordinalOf(Pin p)
+	{
+		return p == null ? -1 : p._ordinal;
+	}
 
-		//return parr
-		return parr;
+	/**
+	 * Gets the Pin with a given ordinal
+	 * @param ordinal the ordinal of the desired Pin
+	 * @see #ordinalOf(Pin)
+	 */
+	public static Pin fromOrdinal(int ordinal)
+	{
+		return _values[ordinal];
 	}
 
 	/**
 	 * Adds a new Pin to the list of valid Pins
 	 * @param p the new Pin
+	 * @throws IllegalArgumentException if a Pin with the same name already exists, or {@code p} is already a valid Pin
 	 */
-	public static void addValue(Pin p) 
+	public static synchronized void addValue(Pin p) 
 	{
-		//if the list of _values is not initialized, initialize it
-		if (_values == null)
-			_values = new ArrayList<Pin>();
-
-		if(_values.contains(p))
-			throw new IllegalArgumentException();
+		if(p._ordinal >= 0 || _byName.containsKey(p._name))
+			throw new IllegalArgumentException(String.format(Resources.BRACKET, p._name));
+		
+		Pin[] values = Arrays.copyOf(_values, _values.length + 1);
+		p._ordinal = _values.length;
+		values[p._ordinal] = p;
+		_byName.put(p._name, p);
+		
+		if(p._name.length() == 1 && p._name.charAt(0) < CHAR_TABLE_SIZE)
+		{
+			Pin[] byChar = _byChar.clone();
+			byChar[p._name.charAt(0)] = p;
+			_byChar = byChar;
+		}
 		
-		//add the new pin
-		_values.add(p);
+		//publish the new snapshot last, so readers never see a Pin that is not in the lookups yet
+		_values = values;
 	}
 
 	/**
@@ -114,38 +153,33 @@ public class Pin
 	/**
 	 * Gets the Pin with name s
 	 * @param s the name of the desired Pin
+	 * @return the Pin, or NULL if there is no Pin with name s
 	 */
 	public static Pin valueOf(String s) 
 	{
-		//create empty pin
-		Pin out = null;
-		//use streams to get all pins with name s
-		List<Pin> pl = _values.stream().filter(x -> x._name.equals(s)).collect(Collectors.toList());
-
-		//are there any results?
-		if (pl.size() > 0)
-			//yes? get index 0
-			out = pl.get(0);
-
-		//return the pin
-		return out;
+		if(s.length() == 1)
+			return valueOf(s.charAt(0));
+		
+		synchronized (Pin.class)
+		{
+			return _byName.get(s);
+		}
 	}
 
-	@Override
-	public boolean equals(Object p2) 
+	/**
+	 * Gets the Pin with a single character as name
+	 * @param c the name of the desired Pin
+	 * @return the Pin, or NULL if there is no Pin with name c
+	 */
+	public static Pin valueOf(char c) 
 	{
-		//if p2 is null return false
-		if (p2 == null)
-			return false;
-
-		//check if p2 is of type Pin
-		if(p2 instanceof Pin)
+		if(c < CHAR_TABLE_SIZE)
+			return _byChar[c];
+		
+		synchronized (Pin.class)
 		{
-			Pin p = (Pin)p2;
-			return this.getName().equals(p.getName());
+			return _byName.get(Character.toString(c));
 		}
-		
-		return false;
 	}
 
 	@Override
@@ -0,0 +1,201 @@
+package mastermind;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import mastermind.solver.Strategy;
+
+/**
+ * The immutable rules of a GameSession: the number of pins in a code, the number of turns in a phase, the Pins that
+ * can be used and the strategy of the computer player.
+ * <p>The Pins are a snapshot of the first {@code colors} valid Pins, taken when the Rules are created. Pins added to
+ * the registry later do not change the Rules, so a session never sees its palette change during a game and can read
+ * it without locking.
+ * @author Tom van Nimwegen
+ * @see GameSession
+ */
+public final class Rules
+{
+	/**
+	 * The number of pins in a code
+	 */
+	private final int _pinCount;
+	/**
+	 * The number of turns in a phase
+	 */
+	private final int _turnCount;
+	/**
+	 * The Pins that can be used, indexed by ordinal
+	 */
+	private final Pin[] _palette;
+	/**
+	 * The strategy of the computer player
+	 */
+	private final Strategy _strategy;
+	/**
+	 * The space of all codes allowed by these Rules
+	 */
+	private final CodeSpace _space;
+
+	/**
+	 * Constructs new Rules
+	 * @param pinCount the number of pins in a code
+	 * @param turnCount the number of turns in a phase
+	 * @param colors the number of Pins that can be used, the first {@code colors} valid Pins
+	 * @param strategy the strategy of the computer player
+	 * @throws IllegalArgumentException if there are not that many valid Pins, or the codes do not fit in a packed code
+	 */
+	public Rules(int pinCount, int turnCount, int colors, Strategy strategy)
+	{
+		Pin[] values = Pin.values();
+
+		if(colors < 1 || colors > values.length)
+			throw new IllegalArgumentException("colors (" + colors + ") is not between 1 and the number of valid Pins (" + values.length + ")");
+
+		if(turnCount < 1)
+			throw new IllegalArgumentException("turns (" + turnCount + ") can not be lower than 1");
+
+		if(strategy == null)
+			throw new IllegalArgumentException("strategy");
+
+		this._space = new CodeSpace(pinCount, colors);
+		this._pinCount = pinCount;
+		this._turnCount = turnCount;
+		this._palette = Arrays.copyOf(values, colors);
+		this._strategy = strategy;
+	}
+
+	/**
+	 * Gets the Rules set up in the console, using {@code Game.PIN_COUNT}, {@code Game.TURN_COUNT},
+	 * {@code Game.STRATEGY} and all valid Pins
+	 */
+	public static Rules current()
+	{
+		return new Rules(Game.PIN_COUNT, Game.TURN_COUNT, Pin.values().length, Game.STRATEGY);
+	}
+
+	/**
+	 * Gets the number of pins in a code
+	 */
+	public int getPinCount()
+	{
+		return this._pinCount;
+	}
+
+	/**
+	 * Gets the number of turns in a phase
+	 */
+	public int getTurnCount()
+	{
+		return this._turnCount;
+	}
+
+	/**
+	 * Gets the number of Pins that can be used
+	 */
+	public int getColors()
+	{
+		return this._palette.length;
+	}
+
+	/**
+	 * Gets a copy of the Pins that can be used, indexed by ordinal
+	 */
+	public Pin[] getPalette()
+	{
+		return this._palette.clone();
+	}
+
+	/**
+	 * Gets the strategy of the computer player
+	 */
+	public Strategy getStrategy()
+	{
+		return this._strategy;
+	}
+
+	/**
+	 * Gets the space of all codes allowed by these Rules
+	 */
+	public CodeSpace getSpace()
+	{
+		return this._space;
+	}
+
+	/**
+	 * Checks if a Pin can be used under these Rules
+	 * @return true if {@code p} is one of the Pins in the palette
+	 */
+	public boolean isValid(Pin p)
+	{
+		int ordinal = Pin.ordinalOf(p);
+		return ordinal >= 0 && ordinal < this._palette.length;
+	}
+
+	/**
+	 * Checks if every Pin of a code can be used under these Rules
+	 */
+	public boolean isValid(PinRow pr)
+	{
+		for (int i = 0; i < pr.getLength(); i++)
+		{
+			if(PackedCode.pinAt(pr.toPacked(), i) >= this._palette.length)
+				return false;
+		}
+
+		return true;
+	}
+
+	/**
+	 * Creates a new random code of {@code getPinCount()} Pins from the palette
+	 * @param random the Random to pick the Pins with
+	 */
+	public PinRow createRandom(Random random)
+	{
+		long code = 0;
+		for (int i = 0; i < this._pinCount; i++)
+		{
+			code = PackedCode.setPin(code, i, random.nextInt(this._palette.length));
+		}
+
+		return PinRow.fromPacked(code, this._pinCount);
+	}
+
+	/**
+	 * Compares a guess to a code
+	 * @param code the code to be guessed
+	 * @param guess the guess
+	 * @return the interned TurnResult of the guess. A feedback of 0,0 if either of the rows is not complete
+	 */
+	public TurnResult compare(PinRow code, PinRow guess)
+	{
+		if(code.getLength() < this._pinCount || guess.getLength() < this._pinCount)
+			return TurnResult.fromFeedback(0, this._pinCount);
+
+		return TurnResult.fromFeedback(PackedCode.score(code.toPacked(), guess.toPacked(), this._pinCount), this._pinCount);
+	}
+
+	@Override
+	public boolean equals(Object obj)
+	{
+		if(obj instanceof Rules)
+		{
+			Rules r = (Rules)obj;
+			return this._pinCount == r._pinCount && this._turnCount == r._turnCount && this._palette.length == r._palette.length && this._strategy == r._strategy;
+		}
+
+		return false;
+	}
+
+	@Override
+	public int hashCode()
+	{
+		return (this._space.hashCode() * 31 + this._turnCount) * 31 + this._strategy.hashCode();
+	}
+
+	@Override
+	public String toString()
+	{
+		return this._space + ", " + this._turnCount + " turns, " + this._strategy;
+	}
+}
@@ -0,0 +1,69 @@
+package mastermind;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * A thread safe registry of GameSessions by id.
+ * <p>Sessions can be created, looked up and removed from any thread. The sessions themselves are not thread safe, see
+ * {@code GameSession}.
+ * @author Tom van Nimwegen
+ * @see GameSession
+ */
+public class SessionRegistry
+{
+	/**
+	 * The sessions by id
+	 */
+	private final ConcurrentMap<Long, GameSession> _sessions = new ConcurrentHashMap<Long, GameSession>();
+
+	/**
+	 * Creates a new session and adds it to this registry
+	 * @param rules the rules of the new session
+	 * @return the new session
+	 */
+	public GameSession create(Rules rules)
+	{
+		GameSession session = new GameSession(rules);
+		this._sessions.put(session.getId(), session);
+		return session;
+	}
+
+	/**
+	 * Gets a session
+	 * @param id the id of the session
+	 * @return the session, or NULL if there is no session with that id in this registry
+	 */
+	public GameSession get(long id)
+	{
+		return this._sessions.get(id);
+	}
+
+	/**
+	 * Removes a session from this registry
+	 * @param id the id of the session
+	 * @return the removed session, or NULL if there was no session with that id in this registry
+	 */
+	public GameSession remove(long id)
+	{
+		return this._sessions.remove(id);
+	}
+
+	/**
+	 * Gets the number of sessions in this registry
+	 */
+	public int size()
+	{
+		return this._sessions.size();
+	}
+
+	/**
+	 * Gets a read-only view of the sessions in this registry
+	 */
+	public Collection<GameSession> getSessions()
+	{
+		return Collections.unmodifiableCollection(this._sessions.values());
+	}
+}
@@ -0,0 +1,123 @@
+package mastermind;
+
+import mastermind.console.io.IAnswer;
+import mastermind.console.io.Question;
+import mastermind.dialog.Resources;
+
+/**
+ * The result of a single step of a StepMachine: the text it produced and the question it asks next.
+ * <p>A Step is immutable. A Step without a question is the last step of its machine.
+ * @author Tom van Nimwegen
+ * @see StepMachine
+ */
+public final class Step
+{
+	/**
+	 * The text produced by the step, one line per {@code Resources.NL}
+	 */
+	private final String _output;
+	/**
+	 * The question to answer next. NULL if the machine is done
+	 */
+	private final Question<?> _question;
+	/**
+	 * Parses the answer to the question. NULL if the machine is done
+	 */
+	private final IAnswer _answer;
+	/**
+	 * Tells if the question was asked before and the input was invalid
+	 */
+	private final boolean _retry;
+
+	/**
+	 * Constructs a new Step
+	 * @param output the text produced by the step
+	 * @param question the question to answer next, or NULL if the machine is done
+	 * @param answer parses the answer to the question, or NULL if the machine is done
+	 * @param retry true if the question was asked before and the input was invalid
+	 */
+	public Step(String output, Question<?> question, IAnswer answer, boolean retry)
+	{
+		this._output = output;
+		this._question = question;
+		this._answer = answer;
+		this._retry = retry;
+	}
+
+	/**
+	 * Gets the text produced by the step
+	 */
+	public String getOutput()
+	{
+		return this._output;
+	}
+
+	/**
+	 * Gets the question to answer next
+	 * @return the question, or NULL if the machine is done
+	 */
+	public Question<?> getQuestion()
+	{
+		return this._question;
+	}
+
+	/**
+	 * Gets the answer that parses the input to the question, which also tells what input is valid
+	 * @return the answer, or NULL if the machine is done
+	 */
+	public IAnswer getAnswer()
+	{
+		return this._answer;
+	}
+
+	/**
+	 * Checks if the question was asked before and the input was invalid. The lines of the question do not have to be
+	 * shown again
+	 */
+	public boolean isRetry()
+	{
+		return this._retry;
+	}
+
+	/**
+	 * Checks if this is the last step of its machine
+	 */
+	public boolean isDone()
+	{
+		return this._question == null;
+	}
+
+	/**
+	 * Gets a Step without output that asks the question of this Step again, without showing its lines. Used when the
+	 * input was handled by the driver, like a special
+	 * @throws IllegalStateException if this is the last step of its machine
+	 */
+	public Step again()
+	{
+		if(this._question == null)
+			throw new IllegalStateException(Resources.ERROR_NO_QUESTION);
+
+		return new Step(Resources.EMPTY, this._question, this._answer, true);
+	}
+
+	/**
+	 * Gets the prompt of the question in text form: its lines, unless this is a retry, and its input prefix
+	 * @return the prompt, or an empty string if the machine is done
+	 */
+	public String getPrompt()
+	{
+		if(this._question == null)
+			return Resources.EMPTY;
+
+		StringBuilder out = new StringBuilder();
+		if(!this._retry)
+		{
+			for (String line : this._question.getLines())
+			{
+				out.append(line).append(Resources.NL);
+			}
+		}
+
+		return out.append(this._question.getInputPrefix()).append(Resources.GAME_INPUT_PREFIX).toString();
+	}
+}
@@ -0,0 +1,139 @@
+package mastermind;
+
+import mastermind.console.io.IAnswer;
+import mastermind.console.io.Question;
+import mastermind.dialog.Resources;
+
+/**
+ * The base class of everything that is played by answering questions, one input at a time.
+ * <p>A StepMachine never reads input itself. {@code start()} returns the first Step, and every input is given to
+ * {@code submit(String)}, which returns the output of that input and the next question. Input that can not be parsed
+ * by the Answer of the question is answered with the error and the same question again. A machine does not block
+ * between steps, so one thread can advance any number of machines, and the console is just one driver of them.
+ * <p>A StepMachine is not thread safe; its steps have to be taken one at a time.
+ * @author Tom van Nimwegen
+ * @see Step
+ */
+public abstract class StepMachine
+{
+	/**
+	 * The question asked by the last step. NULL if no question is open
+	 */
+	private Question<?> _question;
+	/**
+	 * The answer parsing the input to {@code _question}
+	 */
+	private IAnswer _answer;
+	/**
+	 * Tells if the machine is done
+	 */
+	private boolean _done;
+
+	/**
+	 * Starts this machine
+	 * @return the first Step
+	 */
+	public abstract Step start();
+
+	/**
+	 * Handles a parsed answer to the open question
+	 * @param value the value parsed from the input by the Answer of the question
+	 * @return the next Step
+	 */
+	protected abstract Step accept(Object value);
+
+	/**
+	 * Submits input to the open question
+	 * @param input a single line of input
+	 * @return the output of the input and the next question
+	 * @throws IllegalStateException if there is no open question
+	 */
+	public Step submit(String input)
+	{
+		if(this._answer == null)
+			throw new IllegalStateException(Resources.ERROR_NO_QUESTION);
+
+		Object value;
+		try
+		{
+			value = this._answer.parseString(input);
+		}
+		catch(RuntimeException e)
+		{
+			//ask again, the lines of the question were already shown
+			return new Step(Resources.GAME_INPUT_PREFIX + Resources.ERROR_PREFIX + e.getMessage() + Resources.NL, this._question, this._answer, true);
+		}
+
+		this._question = null;
+		this._answer = null;
+
+		try
+		{
+			return this.accept(value);
+		}
+		catch(RuntimeException e)
+		{
+			return this.fail(new StringBuilder(), e);
+		}
+	}
+
+	/**
+	 * Gives back what this machine holds when it is abandoned before it is done, like a session that is closed in the
+	 * middle of a game. Does nothing by default
+	 */
+	public void close()
+	{
+	}
+
+	/**
+	 * Checks if this machine is done
+	 */
+	public boolean isDone()
+	{
+		return this._done;
+	}
+
+	/**
+	 * Ends a step with a question
+	 * @param out the output of the step
+	 * @param question the question to ask
+	 * @param answer parses the answer to the question
+	 */
+	protected Step ask(StringBuilder out, Question<?> question, IAnswer answer)
+	{
+		this._question = question;
+		this._answer = answer;
+		return new Step(out.toString(), question, answer, false);
+	}
+
+	/**
+	 * Ends the last step of this machine
+	 * @param out the output of the step
+	 */
+	protected Step finish(StringBuilder out)
+	{
+		this._question = null;
+		this._answer = null;
+		this._done = true;
+		return new Step(out.toString(), null, null, false);
+	}
+
+	/**
+	 * Ends this machine because of an error
+	 * @param out the output of the step
+	 * @param e the error, its message is added to the output
+	 */
+	protected Step fail(StringBuilder out, Exception e)
+	{
+		line(out, Resources.GAME_INPUT_PREFIX + Resources.ERROR_PREFIX + e.getMessage());
+		return this.finish(out);
+	}
+
+	/**
+	 * Adds a line to the output of a step
+	 */
+	protected static void line(StringBuilder out, Object line)
+	{
+		out.append(line).append(Resources.NL);
+	}
+}
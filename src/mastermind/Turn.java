@@ -0,0 +1,81 @@
+package mastermind;
+
+/**
+ * A single turn on the game board: the guessed code, the result it got and whether the game ended with it
+ * @author Tom van Nimwegen
+ * @see Game
+ */
+public class Turn
+{
+	/**
+	 * The code that was guessed
+	 */
+	private final PinRow _code;
+	/**
+	 * The result of the guess
+	 */
+	private final TurnResult _result;
+	/**
+	 * Was the phase lost this turn
+	 */
+	private boolean _hasLost;
+
+	/**
+	 * Constructs a new Turn
+	 * @param code the code that was guessed
+	 * @param result the result of the guess
+	 */
+	public Turn(PinRow code, TurnResult result)
+	{
+		this._code = code;
+		this._result = result;
+	}
+
+	/**
+	 * A method to return the code that was guessed
+	 */
+	public PinRow getCode()
+	{
+		return this._code;
+	}
+
+	/**
+	 * A method to return the result of the guess
+	 */
+	public TurnResult getResult()
+	{
+		return this._result;
+	}
+
+	/**
+	 * Sets that the game was lost during this turn
+	 */
+	public void setLost()
+	{
+		this._hasLost = true;
+	}
+	
+	/**
+	 * A method to check if the game was lost this turn
+	 * @return Returns true if the game was lost during this turn. Returns false if it wasn't
+	 */
+	public boolean hasLost()
+	{
+		return this._hasLost;
+	}
+	
+	/**
+	 * A method to check if the game was won this turn
+	 * @return Returns true if the result of this turn has only black pins. Returns false if it hasn't
+	 */
+	public boolean hasWon()
+	{
+		return this._result.isCorrect();
+	}
+
+	@Override
+	public String toString()
+	{
+		return this._code + " " + this._result.toSmallString();
+	}
+}
@@ -1,144 +1,123 @@
 package mastermind;
 
-import java.util.ArrayList;
-import java.util.List;
-
-import mastermind.console.io.IAnswer;
 import mastermind.dialog.Resources;
 
-public class TurnResult implements IAnswer {
-	
+/**
+ * The feedback on a guess: the number of black and white pins.
+ * <p>There are only a few different feedbacks for every number of pins, so every TurnResult is interned. Use
+ * {@code valueOf} or {@code fromFeedback} to get one; two TurnResults with the same pins are the same instance.
+ * Every TurnResult is indexed by its packed feedback {@code black * (pins + 1) + white}, which fits in a byte and can
+ * be used as an array index. Whether a game was won or lost is kept by the Turn, not here.
+ * @author Tom van Nimwegen
+ * @see PackedCode#feedback(int, int, int)
+ * @see Turn
+ */
+public final class TurnResult {
+
 	/**
-	 * The number of pins used in the result sets. This number is the same as the number of pins used on the game board
+	 * All TurnResults, indexed by the number of pins and the packed feedback. Combinations of black and white pins
+	 * that do not fit in the number of pins are NULL
 	 */
-	private static final int RESULT_PIN_COUNT = Game.PIN_COUNT;
-	
+	private static final TurnResult[][] _interned = new TurnResult[PackedCode.MAX_PINS + 1][];
+
+	static
+	{
+		for (int pins = 0; pins <= PackedCode.MAX_PINS; pins++)
+		{
+			_interned[pins] = new TurnResult[PackedCode.feedbackCount(pins)];
+
+			for (int black = 0; black <= pins; black++)
+			{
+				for (int white = 0; black + white <= pins; white++)
+				{
+					_interned[pins][PackedCode.feedback(black, white, pins)] = new TurnResult(black, white, pins);
+				}
+			}
+		}
+	}
+
 	/**
 	 * The number of correctly placed Pins
 	 */
-	private int _blackPinCount;
+	private final int _blackPinCount;
 	/**
 	 * The number of Pins that have the right color but not the right place
 	 */
-	private int _whitePinCount;
+	private final int _whitePinCount;
 	/**
-	 * Was the phase lost this turn
+	 * The number of pins in the code this result belongs to
 	 */
-	private boolean _hasLost;
-	/**
-	 * Was the phase won this turn
-	 */
-	private boolean _hasWon;
-	
-	/**
-	 * Valid input for this Answer
-	 */
-	private List<String> _validInput;
-	
+	private final int _pinCount;
+
 	/**
-	 * Constructs a new instance of the TurnResult class used
+	 * Constructs a new instance of the TurnResult class
 	 * @param blackPinCount The number of correct colors placed on the board on the right spot
 	 * @param whitePinCount The number of correct colors placed on the board but not on the right spot
+	 * @param pinCount The number of pins in the code
 	 */
-	public TurnResult(int blackPinCount, int whitePinCount)
-	{
-		this.setBlackPinCount(blackPinCount);
-		this.setWhitePinCount(whitePinCount);
-		
-		String[] t = new String[Game.PIN_COUNT];
-		
-		for (int i = 0; i < Game.PIN_COUNT; i++) 
-		{
-			t[i] = Resources.EMPTY + (i+1);
-		}
-	}
-	
-	/**
-	 * Constructs a new default instance of the TurnResult class
-	 */
-	public TurnResult()
+	private TurnResult(int blackPinCount, int whitePinCount, int pinCount)
 	{
-		this(0,0);
+		this._blackPinCount = blackPinCount;
+		this._whitePinCount = whitePinCount;
+		this._pinCount = pinCount;
 	}
 
 	/**
-	 * Sets the amount of correctly placed Pins.
-	 * @param value number of correctly placed pins. Can not be larger then {@code Game.PIN_COUNT}.
+	 * Gets the TurnResult for a number of black and white pins in a code of {@code Game.PIN_COUNT} pins
+	 * @param blackPinCount The number of correct colors placed on the board on the right spot
+	 * @param whitePinCount The number of correct colors placed on the board but not on the right spot
+	 * @throws IllegalArgumentException if a count is lower than 0, or together they are larger than {@code Game.PIN_COUNT}
 	 */
-	private void setBlackPinCount(int value)
+	public static TurnResult valueOf(int blackPinCount, int whitePinCount)
 	{
-		if(checkSetValue(value, "input"))
-			this._blackPinCount = value;
-		
-		if(this._blackPinCount >= Game.PIN_COUNT && !this.hasWon() && !this.hasLost())
-			this.setWon();
+		return valueOf(blackPinCount, whitePinCount, Game.PIN_COUNT);
 	}
-	
 
 	/**
-	 * Sets the amount of correctly colored Pins.
-	 * @param value number of correctly colored Pins. Can not be larger then {@code Game.PIN_COUNT}.
-	 */
-	private void setWhitePinCount(int value)
-	{
-		if(checkSetValue(value, "input"))
-			this._whitePinCount = value;
-	}
-	
-	/**
-	 * Sets that the game was lost during this turn
-	 */
-	public void setLost()
-	{
-		this._hasLost = true;
-	}
-	
-	/**
-	 * A method to check if the game was lost this turn
-	 * @return Returns true if the game was lost during this turn. Returns false if it wasn't
-	 */
-	public boolean hasLost()
-	{
-		return this._hasLost;
-	}
-	
-	/**
-	 * Sets that the game was won during this turn
+	 * Gets the TurnResult for a number of black and white pins
+	 * @param blackPinCount The number of correct colors placed on the board on the right spot
+	 * @param whitePinCount The number of correct colors placed on the board but not on the right spot
+	 * @param pinCount The number of pins in the code
+	 * @throws IllegalArgumentException if a count is lower than 0, or together they are larger than {@code pinCount}
 	 */
-	public void setWon()
+	public static TurnResult valueOf(int blackPinCount, int whitePinCount, int pinCount)
 	{
-		this._hasWon = true;
+		checkSetValue(blackPinCount, pinCount, "black");
+		checkSetValue(whitePinCount, pinCount - blackPinCount, "white");
+
+		return _interned[pinCount][PackedCode.feedback(blackPinCount, whitePinCount, pinCount)];
 	}
-	
+
 	/**
-	 * A method to check if the game was won this turn
-	 * @return Returns true if the game was won during this turn. Returns false if it wasn't
+	 * Gets the TurnResult for a packed feedback
+	 * @param feedback The packed feedback
+	 * @param pinCount The number of pins in the code
+	 * @return the TurnResult, or NULL if the feedback does not fit in {@code pinCount} pins
+	 * @see PackedCode
 	 */
-	public boolean hasWon()
+	public static TurnResult fromFeedback(int feedback, int pinCount)
 	{
-		return this._hasWon;
+		return _interned[pinCount][feedback];
 	}
-	
+
 	/**
-	 * A method to check if a set method works for a given method
+	 * A method to check if a value can be set
 	 * @param value The value you want to set
+	 * @param max The maximum value
 	 * @param name The name of the var you want to set
-	 * @return Returns if the set was successful
 	 */
-	private boolean checkSetValue(int value, String name)
+	private static void checkSetValue(int value, int max, String name)
 	{
-		if(value > RESULT_PIN_COUNT)
+		if(value > max)
 		{
-			throw new IllegalArgumentException(name + " (" + value + ") " + Resources.ERROR_TURNSET_1);
+			throw new IllegalArgumentException(name + " (" + value + ") " + String.format(Resources.ERROR_TURNSET_1, max));
 		}
 		else if(value < 0)
 		{
 			throw new IllegalArgumentException(name + " (" + value + ") " + Resources.ERROR_TURNSET_2);
 		}
-		
-		return true;
 	}
-	
+
 	/**
 	 * A method used to return he number of correct color placed on the board on the right spot
 	 * @return Returns the number of correct color placed on the board on the right spot
@@ -147,7 +126,7 @@ public class TurnResult implements IAnswer {
 	{
 		return _blackPinCount;
 	}
-	
+
 	/**
 	 * A method used to return the number of correct color placed on the board but not on the right spot
 	 * @return Returns the number of correct color placed on the board but not on the right spot
@@ -156,92 +135,65 @@ public class TurnResult implements IAnswer {
 	{
 		return _whitePinCount;
 	}
-	
-	@Override
-	public boolean equals(Object tr)
+
+	/**
+	 * A method used to return the number of pins in the code this result belongs to
+	 */
+	public int getPinCount()
 	{
-		if(tr instanceof TurnResult)
-		{
-			TurnResult turn = (TurnResult)tr;
-			return this.getBlackPinCount() == turn.getBlackPinCount() && this.getWhitePinCount() == turn.getWhitePinCount();
-		}
-		
-		return false;
+		return _pinCount;
 	}
-	
-	@Override
-	public String toString() 
+
+	/**
+	 * A method used to return the packed feedback of this TurnResult
+	 * @see PackedCode#feedback(int, int, int)
+	 */
+	public int getFeedback()
 	{
-		return Resources.PHASE2_BLACKPIN + ": " + getBlackPinCount() + 
-				" - " + Resources.PHASE2_WHITEPIN + ": " + getWhitePinCount();
+		return PackedCode.feedback(this._blackPinCount, this._whitePinCount, this._pinCount);
 	}
-	
+
 	/**
-	 * Gets a small string representation of this TurnResult
-	 * @return a small string representation of this TurnResult. Example: 0,1.
+	 * A method to check if this result means the code was guessed
+	 * @return Returns true if all pins are black
 	 */
-	public String toSmallString() 
+	public boolean isCorrect()
 	{
-		return getBlackPinCount() + "," + getWhitePinCount();
+		return this._blackPinCount >= this._pinCount;
 	}
 
 	@Override
-	public TurnResult parseString(String input)
+	public boolean equals(Object tr)
 	{
-		if(!input.contains(","))
-			throw new IllegalArgumentException(Resources.ERROR_TURNFORMAT);
-		
-		String[] numbers = input.split(",");
-		
-		if(numbers.length > 2 || numbers.length <= 1)
-			throw new IllegalArgumentException(Resources.ERROR_TURNFORMAT);
-		
-		TurnResult out = null;
-		
-		try 
+		//TurnResults are interned, but keep the value compare for safety
+		if(tr instanceof TurnResult)
 		{
-			int correctplace = Integer.parseInt(numbers[0]);
-			int correctcolor = Integer.parseInt(numbers[1]);
-			
-			out = new TurnResult(correctplace, correctcolor);
-			
-		} catch (NumberFormatException e) {
-			throw new IllegalArgumentException(Resources.ERROR_TURNFORMAT);
+			TurnResult turn = (TurnResult)tr;
+			return this._blackPinCount == turn._blackPinCount && this._whitePinCount == turn._whitePinCount && this._pinCount == turn._pinCount;
 		}
-		
-		return out;
+
+		return false;
 	}
 
 	@Override
-	public void addValidInput(String... input) 
+	public int hashCode()
 	{
-		if(this._validInput == null)
-			this._validInput = new ArrayList<String>();
-		
-		for (String string : input) 
-		{
-			this._validInput.add(string);			
-		}	
+		return this.getFeedback() * (PackedCode.MAX_PINS + 1) + this._pinCount;
 	}
 
 	@Override
-	public List<String> getValidInput() 
+	public String toString()
 	{
-		return new ArrayList<String>(this._validInput);
+		return Resources.PHASE2_BLACKPIN + ": " + getBlackPinCount() +
+				" - " + Resources.PHASE2_WHITEPIN + ": " + getWhitePinCount();
 	}
 
-	@Override
-	public String getValidInputAsString()
+	/**
+	 * Gets a small string representation of this TurnResult
+	 * @return a small string representation of this TurnResult. Example: 0,1.
+	 */
+	public String toSmallString()
 	{
-		if(this._validInput == null)
-			this._validInput = new ArrayList<String>();
-		
-		String out = Resources.EMPTY;
-		for (String string : this._validInput) 
-		{
-			out += String.format(Resources.BRACKET, string);
-		}
-		
-		return out;
+		return getBlackPinCount() + "," + getWhitePinCount();
 	}
 }
@@ -0,0 +1,124 @@
+package mastermind.bench;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.function.LongSupplier;
+
+import mastermind.dialog.Resources;
+
+/**
+ * A small benchmark harness that measures the time and the heap allocation of a single operation.
+ * <p>An operation is first run for {@code WARMUP_MILLIS} so the JIT compiler can do its work, and then measured in
+ * batches for {@code MEASURE_MILLIS}. The result of every call is folded into a sink, so the JIT can not remove the
+ * operation as dead code. Allocation is read from the {@code com.sun.management.ThreadMXBean} of the current thread,
+ * when the JVM supports it.
+ * @author Tom van Nimwegen
+ * @see HotPathBenchmarks
+ */
+public class Benchmark
+{
+	/**
+	 * The time every operation is run before it is measured
+	 */
+	public static long WARMUP_MILLIS = 500;
+	/**
+	 * The time every operation is measured
+	 */
+	public static long MEASURE_MILLIS = 1000;
+
+	/**
+	 * Keeps the results of all operations alive
+	 */
+	private static volatile long _sink;
+
+	/**
+	 * The name of the operation
+	 */
+	private final String _name;
+	/**
+	 * The parameters of the operation, like the number of pins and colors
+	 */
+	private final String _params;
+	/**
+	 * The operation to measure
+	 */
+	private final LongSupplier _op;
+
+	/**
+	 * Constructs a new Benchmark
+	 * @param name the name of the operation
+	 * @param params the parameters of the operation, printed next to the name
+	 * @param op the operation to measure. It should return something that depends on its work
+	 */
+	public Benchmark(String name, String params, LongSupplier op)
+	{
+		this._name = name;
+		this._params = params;
+		this._op = op;
+	}
+
+	/**
+	 * Runs this Benchmark and prints the result
+	 */
+	public void run()
+	{
+		//warm up
+		this.loop(WARMUP_MILLIS);
+
+		long allocated = allocatedBytes();
+		long start = System.nanoTime();
+		long ops = this.loop(MEASURE_MILLIS);
+		long time = System.nanoTime() - start;
+		allocated = allocatedBytes() - allocated;
+
+		double bytes = allocated < 0 ? Double.NaN : (double)allocated / ops;
+
+		System.out.println(String.format(Resources.BENCH_RESULT, this._name, this._params, (double)time / ops, bytes));
+	}
+
+	/**
+	 * Runs the operation for a period of time
+	 * @return the number of times the operation was run
+	 */
+	private long loop(long millis)
+	{
+		long end = System.nanoTime() + millis * 1000000L;
+		long ops = 0;
+		long batch = 1;
+		long sink = 0;
+
+		long now = System.nanoTime();
+		while(now < end)
+		{
+			long batchStart = now;
+			for (long i = 0; i < batch; i++)
+			{
+				sink += this._op.getAsLong();
+			}
+
+			ops += batch;
+			now = System.nanoTime();
+
+			//grow the batch until it takes about a millisecond, so the clock is read less often than the operation runs
+			if(now - batchStart < 1000000L)
+				batch *= 2;
+		}
+
+		_sink += sink;
+		return ops;
+	}
+
+	/**
+	 * Gets the number of bytes allocated by the current thread
+	 * @return the number of bytes, or -1 if the JVM does not support it
+	 */
+	private static long allocatedBytes()
+	{
+		ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+
+		if(bean instanceof com.sun.management.ThreadMXBean)
+			return ((com.sun.management.ThreadMXBean)bean).getThreadAllocatedBytes(Thread.currentThread().getId());
+
+		return -1;
+	}
+}
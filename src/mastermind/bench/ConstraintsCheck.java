@@ -0,0 +1,204 @@
+package mastermind.bench;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import mastermind.CodeSpace;
+import mastermind.PackedCode;
+import mastermind.dialog.Resources;
+import mastermind.solver.Constraints;
+
+/**
+ * Checks the queries of Constraints against brute force over random histories.
+ * <p>Every history has a random secret code and one to {@code MAX_TURNS} random guesses with their feedback. In every
+ * other history one feedback is replaced by another possible feedback, like a user that made a mistake, so histories
+ * without any consistent code are checked as well. The consistent codes are found by scoring every code against every
+ * turn, and every query has to agree: {@code count(long)} gives their number, {@code findAll(long[])} gives exactly
+ * those codes and {@code findOne(Random)} gives one of them, or -1 if there are none. A randomized {@code findOne} may
+ * give up on a history with consistent codes, as long as it says so with {@code isCut()}.
+ * <p>Arguments: the number of pins, the number of colors, the number of histories and the seed, for example
+ * {@code 4 6 20000 0}. The first mismatches are shown with their history.
+ * @author Tom van Nimwegen
+ * @see Constraints
+ */
+public class ConstraintsCheck {
+
+	/**
+	 * The maximum number of turns in a history
+	 */
+	public static int MAX_TURNS = 6;
+	/**
+	 * The number of mismatches that are shown
+	 */
+	public static int SHOWN = 10;
+
+	public static void main(String[] args) {
+
+		if(args.length < 2)
+		{
+			System.out.println(Resources.CHECK_USAGE);
+			return;
+		}
+
+		int pins = Integer.parseInt(args[0]);
+		int colors = Integer.parseInt(args[1]);
+		int histories = args.length > 2 ? Integer.parseInt(args[2]) : 20000;
+		long seed = args.length > 3 ? Long.parseLong(args[3]) : 0;
+
+		CodeSpace space = new CodeSpace(pins, colors);
+		long[] codes = space.codes().toArray();
+		Random r = new Random(seed);
+
+		System.out.println(String.format(Resources.CHECK_START, histories, space));
+
+		int lies = 0;
+		int empty = 0;
+		int gaveUp = 0;
+		int mismatches = 0;
+		long start = System.nanoTime();
+
+		for (int h = 0; h < histories; h++)
+		{
+			long secret = codes[r.nextInt(codes.length)];
+			int turns = 1 + r.nextInt(MAX_TURNS);
+			long[] guesses = new long[turns];
+			int[] feedbacks = new int[turns];
+
+			for (int t = 0; t < turns; t++)
+			{
+				guesses[t] = codes[r.nextInt(codes.length)];
+				feedbacks[t] = PackedCode.score(guesses[t], secret, pins);
+			}
+
+			//every other history has a mistake in one of its turns
+			if(h % 2 == 1)
+			{
+				int t = r.nextInt(turns);
+				feedbacks[t] = lie(feedbacks[t], pins, r);
+				lies++;
+			}
+
+			long[] consistent = consistent(codes, guesses, feedbacks, pins);
+			if(consistent.length == 0)
+				empty++;
+
+			String error = check(new Constraints(pins, colors, guesses, feedbacks, turns), consistent, guesses, feedbacks, pins, r);
+
+			//a randomized search that ran out of restarts is not wrong
+			if(Resources.CHECK_GAVE_UP.equals(error))
+			{
+				gaveUp++;
+			}
+			else if(error != null)
+			{
+				if(mismatches++ < SHOWN)
+					System.out.println(String.format(Resources.CHECK_MISMATCH, h, error, history(guesses, feedbacks, pins)));
+			}
+		}
+
+		double millis = (System.nanoTime() - start) / 1e6;
+		System.out.println(String.format(Resources.CHECK_RESULT, histories, lies, empty, gaveUp, mismatches, millis));
+	}
+
+	/**
+	 * Runs every query and compares it with the consistent codes
+	 * @param consistent the consistent codes, sorted
+	 * @return NULL if every query agrees, {@code Resources.CHECK_GAVE_UP} if only the randomized search gave up, otherwise
+	 * what went wrong
+	 */
+	private static String check(Constraints constraints, long[] consistent, long[] guesses, int[] feedbacks, int pins, Random r)
+	{
+		long count = constraints.count(Long.MAX_VALUE);
+		if(count != consistent.length || constraints.isCut())
+			return String.format(Resources.CHECK_COUNT, count, consistent.length);
+
+		//one more room than needed, so codes that should not be found would show up
+		long[] found = new long[consistent.length + 1];
+		int n = constraints.findAll(found);
+		found = Arrays.copyOf(found, n);
+		Arrays.sort(found);
+		if(!Arrays.equals(found, consistent))
+			return String.format(Resources.CHECK_FIND_ALL, n, consistent.length);
+
+		long one = constraints.findOne(null);
+		if(!isFound(one, consistent))
+			return String.format(Resources.CHECK_FIND_ONE, one, consistent.length);
+
+		one = constraints.findOne(r);
+		if(one < 0 && consistent.length > 0 && constraints.isCut())
+			return Resources.CHECK_GAVE_UP;
+		if(!isFound(one, consistent))
+			return String.format(Resources.CHECK_FIND_ONE, one, consistent.length);
+
+		return null;
+	}
+
+	/**
+	 * Checks if the answer of {@code findOne(Random)} is right
+	 * @param one the packed code, or -1
+	 */
+	private static boolean isFound(long one, long[] consistent)
+	{
+		return one < 0 ? consistent.length == 0 : Arrays.binarySearch(consistent, one) >= 0;
+	}
+
+	/**
+	 * Finds the codes that give the same feedback as every turn by scoring them all
+	 * @return the consistent codes, sorted
+	 */
+	private static long[] consistent(long[] codes, long[] guesses, int[] feedbacks, int pins)
+	{
+		return Arrays.stream(codes).filter(code ->
+		{
+			for (int t = 0; t < guesses.length; t++)
+			{
+				if(PackedCode.score(guesses[t], code, pins) != feedbacks[t])
+					return false;
+			}
+
+			return true;
+		}).sorted().toArray();
+	}
+
+	/**
+	 * Picks another feedback that some code could give
+	 * @param feedback the real feedback
+	 */
+	private static int lie(int feedback, int pins, Random r)
+	{
+		while(true)
+		{
+			int black = r.nextInt(pins);
+			int white = r.nextInt(pins - black + 1);
+
+			//all pins but one black with one white is not possible
+			if(black == pins - 1 && white == 1)
+				continue;
+
+			int lie = PackedCode.feedback(black, white, pins);
+			if(lie != feedback)
+				return lie;
+		}
+	}
+
+	/**
+	 * Shows a history as {@code CODE:black:white} turns, like the solver service reads them
+	 */
+	private static String history(long[] guesses, int[] feedbacks, int pins)
+	{
+		StringBuilder out = new StringBuilder();
+		for (int t = 0; t < guesses.length; t++)
+		{
+			if(t > 0)
+				out.append(' ');
+
+			for (int i = 0; i < pins; i++)
+			{
+				out.append((char)('A' + PackedCode.pinAt(guesses[t], i)));
+			}
+			out.append(':').append(PackedCode.blacks(feedbacks[t], pins)).append(':').append(PackedCode.whites(feedbacks[t], pins));
+		}
+
+		return out.toString();
+	}
+}
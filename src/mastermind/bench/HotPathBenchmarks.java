@@ -0,0 +1,147 @@
+package mastermind.bench;
+
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Random;
+
+import mastermind.CodeSpace;
+import mastermind.Game;
+import mastermind.PackedCode;
+import mastermind.Pin;
+import mastermind.PinRow;
+import mastermind.console.io.PinRowAnswer;
+import mastermind.dialog.Resources;
+import mastermind.solver.FeedbackTable;
+import mastermind.solver.PartitionStrategy;
+import mastermind.solver.RandomStrategy;
+import mastermind.solver.Solver;
+
+/**
+ * Benchmarks of the hot paths of the game: scoring, enumerating and parsing codes, looking up Pins and a single
+ * pruning turn of the computer player. Every benchmark runs for every combination of pin count and palette size.
+ * <p>Arguments: a comma separated list of pin counts and a comma separated list of palette sizes, for example
+ * {@code 4,5 6,8}. Like JMH, every combination runs in a fresh JVM. Every result shows the time and the number of
+ * bytes allocated per operation.
+ * @author Tom van Nimwegen
+ * @see Benchmark
+ */
+public class HotPathBenchmarks {
+
+	/**
+	 * The names of the Pins that are added to get a palette of the right size
+	 */
+	private static final String NAMES = "ABCDEFGHIJKLMNOPQRSTUVWXYZ";
+	/**
+	 * The number of random codes every benchmark cycles through
+	 */
+	private static final int SAMPLES = 1024;
+	/**
+	 * The argument that tells the JVM it is a fork that runs a single combination
+	 */
+	private static final String FORK = "--fork";
+
+	public static void main(String[] args) throws Exception {
+
+		//a forked run benchmarks a single combination
+		if(args.length == 3 && args[0].equals(FORK))
+		{
+			int p = Integer.parseInt(args[1]);
+			int c = Integer.parseInt(args[2]);
+
+			for (int i = 0; i < c; i++)
+			{
+				Pin.addAll(Character.toString(NAMES.charAt(i)));
+			}
+			Game.PIN_COUNT = p;
+
+			run(p, c);
+			return;
+		}
+
+		int[] pins = args.length > 0 ? parseList(args[0]) : new int[] { 4, 5 };
+		int[] colors = args.length > 1 ? parseList(args[1]) : new int[] { 6, 8 };
+
+		System.out.println(String.format(Resources.BENCH_HEADER, "benchmark", "params", "ns/op", "B/op"));
+
+		//the rules and the palette are static, so every combination runs in its own JVM
+		String java = Paths.get(System.getProperty("java.home"), "bin", "java").toString();
+		for (int c : colors)
+		{
+			for (int p : pins)
+			{
+				Process fork = new ProcessBuilder(java, "-cp", System.getProperty("java.class.path"),
+						HotPathBenchmarks.class.getName(), FORK, Integer.toString(p), Integer.toString(c)).inheritIO().start();
+
+				if(fork.waitFor() != 0)
+					return;
+			}
+		}
+	}
+
+	/**
+	 * Runs all benchmarks for a single pin count and palette size
+	 */
+	private static void run(int pins, int colors)
+	{
+		String params = pins + "x" + colors;
+		Random r = new Random(0);
+
+		PinRow[] rows = new PinRow[SAMPLES];
+		long[] codes = new long[SAMPLES];
+		String[] strings = new String[SAMPLES];
+		String[] names = new String[SAMPLES];
+		String invalid = colors < NAMES.length() ? Character.toString(NAMES.charAt(colors)) : "?";
+		for (int i = 0; i < SAMPLES; i++)
+		{
+			rows[i] = PinRow.createRandom();
+			codes[i] = rows[i].toPacked();
+			strings[i] = rows[i].toString().toLowerCase();
+			//one in eight names is not a valid Pin, whatever the number of colors
+			names[i] = r.nextInt(8) == 0 ? invalid : Character.toString(NAMES.charAt(r.nextInt(colors)));
+		}
+
+		int[] counter = new int[1];
+
+		new Benchmark("PinRow.compareTo", params, () ->
+		{
+			int i = counter[0]++;
+			return rows[i & (SAMPLES - 1)].compareTo(rows[(i * 7 + 1) & (SAMPLES - 1)]).getBlackPinCount();
+		}).run();
+
+		new Benchmark("PackedCode.score", params, () ->
+		{
+			int i = counter[0]++;
+			return PackedCode.score(codes[i & (SAMPLES - 1)], codes[(i * 7 + 1) & (SAMPLES - 1)], pins);
+		}).run();
+
+		new Benchmark("PinRow.getAllPairs", params, () -> PinRow.getAllPairs().size()).run();
+
+		PinRowAnswer parser = new PinRowAnswer();
+		new Benchmark("PinRowAnswer.parseString", params, () -> parser.parseString(strings[counter[0]++ & (SAMPLES - 1)]).getLength()).run();
+
+		new Benchmark("Pin.valueOf", params, () -> Pin.valueOf(names[counter[0]++ & (SAMPLES - 1)]) == null ? 0 : 1).run();
+
+		new Benchmark("Pin.isValid", params, () -> Pin.isValid(names[counter[0]++ & (SAMPLES - 1)]) ? 1 : 0).run();
+
+		//a pruning turn is the first feedback of a game, which has to go through every code
+		FeedbackTable table = new FeedbackTable(CodeSpace.current());
+		Solver solver = new Solver(table, new RandomStrategy(), new Random(0));
+		long opening = PartitionStrategy.opening(pins, colors);
+
+		new Benchmark("Solver.addFeedback", params, () ->
+		{
+			solver.reset();
+			solver.addFeedback(opening, PackedCode.score(opening, codes[counter[0]++ & (SAMPLES - 1)], pins));
+			return solver.getCandidates().size();
+		}).run();
+	}
+
+	/**
+	 * Parses a comma separated list of numbers
+	 */
+	private static int[] parseList(String list)
+	{
+		return Arrays.stream(list.split(",")).mapToInt(Integer::parseInt).toArray();
+	}
+
+}
@@ -0,0 +1,74 @@
+package mastermind.console;
+
+import java.io.IOException;
+
+import mastermind.Game;
+import mastermind.Pin;
+import mastermind.Rules;
+import mastermind.dialog.Resources;
+import mastermind.server.GameServer;
+import mastermind.solver.Strategy;
+
+/**
+ * Serves the console game over TCP on the loopback address, see {@code GameServer}.
+ * <p>Arguments: the port (0 for any free port), the maximum number of players at once, the number of pins, the number
+ * of turns and the name of the strategy, see {@code Strategy}. Every argument is optional. The server shuts down
+ * gracefully when the program is stopped.
+ * @author Tom van Nimwegen
+ */
+public class ServerMain {
+
+	public static void main(String[] args) throws IOException {
+
+		int port = 4444;
+		int maxSessions = GameServer.MAX_SESSIONS;
+		int pins = Game.PIN_COUNT;
+		int turns = Game.TURN_COUNT;
+		Strategy strategy = Game.STRATEGY;
+
+		try
+		{
+			if(args.length > 0)
+				port = Integer.parseInt(args[0]);
+			if(args.length > 1)
+				maxSessions = Integer.parseInt(args[1]);
+			if(args.length > 2)
+				pins = Integer.parseInt(args[2]);
+			if(args.length > 3)
+				turns = Integer.parseInt(args[3]);
+			if(args.length > 4)
+				strategy = Strategy.fromName(args[4]);
+		}
+		catch(NumberFormatException e)
+		{
+			strategy = null;
+		}
+
+		if(strategy == null)
+		{
+			System.out.println(Resources.SERVER_USAGE);
+			return;
+		}
+
+		//add the default pins
+		Pin.addAll("A", "B", "C", "D", "E", "F");
+
+		GameServer server = new GameServer(new Rules(pins, turns, Pin.values().length, strategy), maxSessions);
+		server.start(port);
+
+		Runtime.getRuntime().addShutdownHook(new Thread(() ->
+		{
+			try
+			{
+				server.close();
+			}
+			catch(IOException e)
+			{
+				//the server is stopping either way
+			}
+		}));
+
+		System.out.println(String.format(Resources.SERVER_START, "localhost:" + server.getPort(), maxSessions, server.isVirtual() ? Resources.SERVER_VIRTUAL : Resources.SERVER_PLATFORM));
+	}
+
+}
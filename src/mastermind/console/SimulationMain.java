@@ -0,0 +1,73 @@
+package mastermind.console;
+
+import java.util.function.Supplier;
+
+import mastermind.CodeSpace;
+import mastermind.dialog.Resources;
+import mastermind.solver.CachingStrategy;
+import mastermind.solver.FeedbackTable;
+import mastermind.solver.GuessStrategy;
+import mastermind.solver.Simulation;
+import mastermind.solver.Solver;
+import mastermind.solver.Strategy;
+import mastermind.solver.TranspositionCache;
+
+/**
+ * Runs a headless Simulation of the computer player and prints the results.
+ * <p>Arguments: the number of pins, the number of colors, the number of games (0 for every code), the seed and the
+ * name of the strategy, see {@code Strategy}. Spaces larger than {@code Solver.ENUMERATION_LIMIT} can only be simulated
+ * with a strategy that does not enumerate the codes, and play a sample of secret codes.
+ * @author Tom van Nimwegen
+ */
+public class SimulationMain {
+
+	public static void main(String[] args) {
+
+		if(args.length < 2)
+		{
+			System.out.println(Resources.SIMULATION_USAGE);
+			return;
+		}
+
+		int pins = Integer.parseInt(args[0]);
+		int colors = Integer.parseInt(args[1]);
+		int games = args.length > 2 ? Integer.parseInt(args[2]) : 0;
+		long seed = args.length > 3 ? Long.parseLong(args[3]) : 0;
+		String name = args.length > 4 ? args[4] : "minimax";
+
+		Strategy strategy = Strategy.fromName(name);
+		if(strategy == null)
+		{
+			System.out.println(Resources.SIMULATION_USAGE);
+			return;
+		}
+
+		CodeSpace space = new CodeSpace(pins, colors);
+		System.out.println(String.format(Resources.SIMULATION_START, space, name));
+
+		//the games share the guesses of every state, so the first turns are only solved once
+		TranspositionCache cache = new TranspositionCache(TranspositionCache.CAPACITY);
+		Supplier<GuessStrategy> strategies = strategy::create;
+		if(strategy.isDeterministic())
+			strategies = () -> new CachingStrategy(cache, name, strategy.create());
+
+		Simulation s;
+		if(Solver.canEnumerate(space))
+			s = new Simulation(new FeedbackTable(space), strategies, seed);
+		else if(!strategy.isEnumerating())
+			s = new Simulation(space, strategies, seed);
+		else
+		{
+			System.out.println(String.format(Resources.SIMULATION_TOO_LARGE, space, Solver.ENUMERATION_LIMIT, name));
+			return;
+		}
+
+		s.setSampleSize(games);
+
+		System.out.println(s.run());
+
+		if(strategy.isDeterministic())
+			System.out.println(String.format(Resources.SIMULATION_CACHE, cache));
+	}
+
+}
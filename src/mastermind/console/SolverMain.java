@@ -0,0 +1,45 @@
+package mastermind.console;
+
+import java.io.IOException;
+
+import mastermind.Pin;
+import mastermind.dialog.Resources;
+import mastermind.server.SolverService;
+
+/**
+ * Answers next guess requests over HTTP on the loopback address, see {@code SolverService}.
+ * <p>Arguments: the port (0 for any free port) and the number of answers to cache. Every argument is optional.
+ * @author Tom van Nimwegen
+ */
+public class SolverMain {
+
+	public static void main(String[] args) throws IOException {
+
+		int port = 8080;
+		int cacheSize = SolverService.CACHE_SIZE;
+
+		try
+		{
+			if(args.length > 0)
+				port = Integer.parseInt(args[0]);
+			if(args.length > 1)
+				cacheSize = Integer.parseInt(args[1]);
+		}
+		catch(NumberFormatException e)
+		{
+			System.out.println(Resources.SOLVER_USAGE);
+			return;
+		}
+
+		//add the default pins
+		Pin.addAll("A", "B", "C", "D", "E", "F");
+
+		SolverService service = new SolverService(cacheSize);
+		service.start(port);
+
+		Runtime.getRuntime().addShutdownHook(new Thread(service::close));
+
+		System.out.println(String.format(Resources.SOLVER_START, service.getPort(), SolverService.PATH, service.getWorkers()));
+	}
+
+}
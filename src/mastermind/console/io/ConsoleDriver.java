@@ -0,0 +1,43 @@
+package mastermind.console.io;
+
+import mastermind.Step;
+import mastermind.StepMachine;
+
+/**
+ * Plays a StepMachine in the console: the output of every step is printed and the answer to its question is read
+ * from the console, with the help and specials of {@code Question}.
+ * @author Tom van Nimwegen
+ * @see StepMachine
+ * @see Question
+ */
+public class ConsoleDriver
+{
+	private ConsoleDriver()
+	{
+	}
+
+	/**
+	 * Plays a StepMachine until it is done, blocking the current thread
+	 * @param machine the machine, not started yet
+	 * @throws IllegalStateException if the console input was closed
+	 */
+	public static void run(StepMachine machine)
+	{
+		Step step = machine.start();
+
+		while(true)
+		{
+			System.out.print(step.getOutput());
+
+			if(step.isDone())
+				return;
+
+			String input = step.getQuestion().readInput(step.getAnswer(), !step.isRetry());
+			step = machine.submit(input);
+
+			//valid input is followed by an empty line, like in Question.askQuestion
+			if(!step.isRetry())
+				System.out.println();
+		}
+	}
+}
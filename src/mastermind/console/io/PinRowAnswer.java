@@ -0,0 +1,92 @@
+package mastermind.console.io;
+
+import mastermind.Pin;
+import mastermind.PinRow;
+import mastermind.Rules;
+import mastermind.dialog.Resources;
+
+/**
+ * An implementation of the Answer class using PinRow as Answer type.
+ * <p>Valid input is a code of {@code Rules.getPinCount()} Pin names from the palette of the Rules, for example:
+ * {@code ABCD}. Input is not case sensitive.
+ * @author Tom van Nimwegen
+ *
+ */
+public class PinRowAnswer extends Answer<PinRow>
+{
+	/**
+	 * Constructs a new instance of the PinRowAnswer class which accepts all valid Pins, using the Rules set up in the console
+	 * @see Answer
+	 * @see Question
+	 */
+	public PinRowAnswer()
+	{
+		this(Rules.current());
+	}
+
+	/**
+	 * Constructs a new instance of the PinRowAnswer class which accepts the Pins of a set of Rules
+	 * @param rules the Rules of the code
+	 * @see Answer
+	 * @see Question
+	 */
+	public PinRowAnswer(Rules rules)
+	{
+		//add all pins to validinput
+		for (Pin pin : rules.getPalette())
+		{
+			this.addValidInput(pin.getName());
+		}
+
+		this.setFunc(input -> parse(input, rules));
+	}
+
+	/**
+	 * A method to parse a String to a new instance of the PinRow class, using the Rules set up in the console
+	 * @param input The input String you want to parse. Example: "ABCD".
+	 * @return Returns a new instance of the PinRow class with the Pins parse from the String
+	 * @throws IllegalArgumentException if the input is too short or contains invalid Pins
+	 */
+	public static PinRow parse(String input)
+	{
+		return parse(input, Rules.current());
+	}
+
+	/**
+	 * A method to parse a String to a new instance of the PinRow class
+	 * @param input The input String you want to parse. Example: "ABCD".
+	 * @param rules The Rules of the code
+	 * @return Returns a new instance of the PinRow class with the Pins parse from the String
+	 * @throws IllegalArgumentException if the input is too short or contains Pins that are not allowed by the Rules
+	 */
+	public static PinRow parse(String input, Rules rules)
+	{
+		//check of the number of letters is to small
+		if(input.length() < rules.getPinCount())
+			//if so, throw a new exception
+			throw new IllegalArgumentException(String.format(Resources.ERROR_CODE_SHORT, rules.getPinCount()));
+
+		//only the number of letters allowed by the rules is used
+		Pin[] pins = new Pin[rules.getPinCount()];
+
+		//create an empty string to hold invalid characters
+		String invalid = Resources.EMPTY;
+
+		//loop over all the letters that are used
+		for (int i = 0; i < pins.length; i++)
+		{
+			char c = input.charAt(i);
+			pins[i] = Pin.valueOf(Character.toUpperCase(c));
+
+			//check if the current letter is valid
+			if(!rules.isValid(pins[i]))
+				invalid += String.format(Resources.BRACKET, Character.toString(c).toUpperCase());
+		}
+
+		if(!invalid.equals(Resources.EMPTY))
+			throw new IllegalArgumentException(Resources.ERROR_CODE_INVALID + ": " + invalid);
+
+		//return the new PinRow
+		return PinRow.fromArray(pins);
+	}
+}
@@ -1,11 +1,14 @@
 package mastermind.console.io;
 
 import java.io.BufferedReader;
+import java.io.IOException;
 import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.function.Consumer;
 import java.util.function.Function;
 
 import mastermind.Game;
@@ -32,6 +35,10 @@ public class Question<T extends IAnswer>
 	 * The static list of Specials used by all questions
 	 */
 	private static List<Special> _specials = new ArrayList<Special>();
+	/**
+	 * The reader of the console input, created on first use
+	 */
+	private static BufferedReader _reader;
 	
 	/**
 	 * Constructs a new question with a prefix and lines. The lines and prefix can be left empty
@@ -54,6 +61,14 @@ public class Question<T extends IAnswer>
 		return new ArrayList<String>(Collections.unmodifiableList(this._lines));
 	}
 	
+	/**
+	 * A method to return the input prefix of this question
+	 */
+	public String getInputPrefix()
+	{
+		return this._inputPrefix;
+	}
+	
 	/**
 	 * Starts the question. 
 	 * <p>The question will be continued to ask until the input required by T is correct.
@@ -61,98 +76,138 @@ public class Question<T extends IAnswer>
 	 * @param out a new instance of T
 	 * @param resultclass the class of the result type of this question
 	 * @return a new instance of R with the result from this question
+	 * @throws IllegalStateException if the console input was closed
 	 */
 	public <R> R askQuestion(T out, Class<R> resultclass)
 	{
-		//setup two loop vars: correct and skip.
-		//correct tells the system if the input was correct
-		//skip tells the system if it should skip an input cycle
-		boolean correct = false;
-		boolean skip = false;
-		
-		//the output value of type R
-		R output = null;
-		
-		//loop through all the lines of the question and display them
-		for (String string : _lines) 
-		{
-			System.out.println(string);
-		}		
-		
-		//setup a new bufferedreader for reading lines from the console
-		BufferedReader br = new BufferedReader(new InputStreamReader(System.in));
-		//setup an empty input string
-		String input = Resources.EMPTY;
+		//the lines are only shown the first time, not after invalid input
+		boolean showLines = true;
 		
 		//check if the input was correct (will always be false on the first run)
-		while(!correct)
+		while(true)
 		{
+			String input = this.readInput(out, showLines);
+			showLines = false;
+			
 			try 
 			{
-				boolean ignorespecial = false;
-				
-				//display the input prefix defines in strings
-				System.out.print(this._inputPrefix + Resources.GAME_INPUT_PREFIX);
-				//read the userinput
-				input = br.readLine();
-				
-				if(input.startsWith("\\"))
-				{
-					ignorespecial = true;
-					input = input.substring(1);
-				}
-				
-				if(!ignorespecial)
-				{
-					Special help = new Special(x -> 
-					{
-						String ouputString = out.getValidInputAsString();
-						
-						if(Game.isDebugMode())
-						{
-							for (Special s : _specials) {
-								ouputString += s;
-							}
-						}
-						
-						System.out.println(String.format(Resources.TUTORIAL_INPUT, ouputString));
-						return true;
-					}, "h", "help");
-					
-					skip = help.accept(input.toLowerCase());
-					
-					if(skip)
-						continue;
-					
-					//loop through all the specials
-					for (Special s : _specials) 
-					{
-						//run the special and store the result in skip
-						skip = s.accept(input.toLowerCase());
-						
-						if(skip)
-							break;
-					}
-				}
-				
-				//check if the skip flag was set
-				if(!skip)
-				{
-					//if not, process the user input
-					output = resultclass.cast(out.parseString(input));
-					//if there was no exception at this point set correct to true
-					correct = true;
-				}
+				//process the user input
+				R output = resultclass.cast(out.parseString(input));
 				
 				System.out.println();
 				
-			} catch (Exception e) {
+				//return the output
+				return output;
+			} 
+			catch (Exception e) 
+			{
 				System.out.println(Resources.GAME_INPUT_PREFIX + Resources.ERROR_PREFIX + e.getMessage());
 			}
-		}		
+		}
+	}
+	
+	/**
+	 * Reads an answer to this question from the console, without parsing it.
+	 * <p>Input asking for help and input of the specials is handled here, and the question is asked again after it.
+	 * Input starting with a backslash is never handled as a special; the backslash is removed.
+	 * @param out the answer to the question, which tells what input is valid
+	 * @param showLines true to show the lines of this question before asking
+	 * @return the input
+	 * @throws IllegalStateException if the console input was closed
+	 */
+	public String readInput(IAnswer out, boolean showLines)
+	{
+		if(showLines)
+		{
+			//loop through all the lines of the question and display them
+			for (String string : _lines) 
+			{
+				System.out.println(string);
+			}
+		}
 		
-		//return the output
-		return output;
+		while(true)
+		{
+			//display the input prefix defines in strings
+			System.out.print(this._inputPrefix + Resources.GAME_INPUT_PREFIX);
+			//read the userinput
+			String input = readLine();
+			
+			if(input == null)
+				throw new IllegalStateException(Resources.ERROR_INPUT_CLOSED);
+			
+			input = filter(input, out, _specials, Game.isDebugMode(), System.out::println);
+			
+			if(input != null)
+				return input;
+		}
+	}
+	
+	/**
+	 * Handles input asking for help and input of a list of specials.
+	 * <p>Input starting with a backslash is never handled; the backslash is removed.
+	 * @param input a line of input
+	 * @param out the answer to the question, which tells what input is valid
+	 * @param specials the specials to run
+	 * @param debugMode true if the specials are listed in the help
+	 * @param output receives the lines of text of the help
+	 * @return the input to answer the question with, or NULL if the input was handled
+	 */
+	public static String filter(String input, IAnswer out, List<Special> specials, boolean debugMode, Consumer<String> output)
+	{
+		if(input.startsWith("\\"))
+			return input.substring(1);
+		
+		Special help = new Special(x -> 
+		{
+			String ouputString = out.getValidInputAsString();
+			
+			if(debugMode)
+			{
+				for (Special s : specials) {
+					ouputString += s;
+				}
+			}
+			
+			output.accept(String.format(Resources.TUTORIAL_INPUT, ouputString));
+			return true;
+		}, "h", "help");
+		
+		if(help.accept(input.toLowerCase()))
+			return null;
+		
+		//loop through all the specials
+		for (Special s : specials) 
+		{
+			//run the special, it tells if it handled the input
+			if(s.accept(input.toLowerCase()))
+			{
+				output.accept(Resources.EMPTY);
+				return null;
+			}
+		}
+		
+		return input;
+	}
+	
+	/**
+	 * Reads a line from the console
+	 * @return the line, or NULL if the input was closed
+	 */
+	private static synchronized String readLine()
+	{
+		//one reader for all questions, so no input is lost in the buffer of a reader that is not used anymore
+		if(_reader == null)
+			_reader = new BufferedReader(new InputStreamReader(System.in));
+		
+		try 
+		{
+			return _reader.readLine();
+		} 
+		catch (IOException e) 
+		{
+			throw new UncheckedIOException(e);
+		}
 	}
 	
 	/**
@@ -165,6 +220,16 @@ public class Question<T extends IAnswer>
 	 */
 	public static void addSpecial(Function<String, Boolean> function, String...params)
 	{
-		_specials.add(new Special(function, params));
+		addSpecial(new Special(function, params));
+	}
+	
+	/**
+	 * A method to add a new special to the list of specials. Specials added will effect all questions asked.
+	 * @param special the special
+	 * @see Special
+	 */
+	public static void addSpecial(Special special)
+	{
+		_specials.add(special);
 	}
 }
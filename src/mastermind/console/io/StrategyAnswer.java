@@ -0,0 +1,36 @@
+package mastermind.console.io;
+
+import mastermind.dialog.Resources;
+import mastermind.solver.Strategy;
+
+/**
+ * An implementation of the Answer class using Strategy as Answer type.
+ * <p>Valid input is the name of a strategy, for example: {@code minimax}.
+ * @author Tom van Nimwegen
+ * 
+ */
+public class StrategyAnswer extends Answer<Strategy>
+{
+	/**
+	 * Constructs a new instance of the StrategyAnswer class which accepts all strategies
+	 * @see Answer
+	 * @see Question
+	 */
+	public StrategyAnswer()
+	{
+		for (Strategy s : Strategy.values()) 
+		{
+			this.addValidInput(s.getName());
+		}
+		
+		this.setFunc(input -> 
+		{
+			Strategy s = Strategy.fromName(input);
+			
+			if(s == null)
+				throw new IllegalArgumentException(String.format(Resources.ERROR_INVALID, this.getValidInputAsString()));
+			
+			return s;
+		});
+	}
+}
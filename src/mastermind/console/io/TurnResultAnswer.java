@@ -0,0 +1,42 @@
+package mastermind.console.io;
+
+import mastermind.TurnResult;
+import mastermind.dialog.Resources;
+
+/**
+ * An implementation of the Answer class using TurnResult as Answer type.
+ * <p>Valid input is the number of black and white pins separated by a comma, for example: {@code 2,1}.
+ * @author Tom van Nimwegen
+ * 
+ */
+public class TurnResultAnswer extends Answer<TurnResult>
+{
+	/**
+	 * Constructs a new instance of the TurnResultAnswer class
+	 * @see Answer
+	 * @see Question
+	 */
+	public TurnResultAnswer()
+	{
+		this.addValidInput("#,#");
+		this.setFunc(input ->
+		{
+			String[] numbers = input.split(",");
+			
+			if(numbers.length != 2)
+				throw new IllegalArgumentException(Resources.ERROR_TURNFORMAT);
+			
+			try 
+			{
+				int correctplace = Integer.parseInt(numbers[0].trim());
+				int correctcolor = Integer.parseInt(numbers[1].trim());
+				
+				return TurnResult.valueOf(correctplace, correctcolor);
+			} 
+			catch (NumberFormatException e) 
+			{
+				throw new IllegalArgumentException(Resources.ERROR_TURNFORMAT);
+			}
+		});
+	}
+}
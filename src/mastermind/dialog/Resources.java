@@ -1,6 +1,7 @@
 package mastermind.dialog;
 
 import mastermind.Game;
+import mastermind.PackedCode;
 
 /**
  * A class containing all the dialog and messages for this application
@@ -18,9 +19,11 @@ public class Resources {
 	public static final String SETUP_DEBUGMODE = "Do you want to enable debug mode?";
 	public static final String SETUP_RULES = "Do you want to change the rules of the game?";
 	public static final String SETUP_RULES_PINCOUNT_1 = "What do you want the Pin count to be?"; 
-	public static final String SETUP_RULES_PINCOUNT_2 = "Default: " + Game.PIN_COUNT + ", Min: 2, Max: 6";
+	public static final String SETUP_RULES_PINCOUNT_2 = "Default: " + Game.PIN_COUNT + ", Min: 2, Max: " + PackedCode.MAX_PINS;
 	public static final String SETUP_RULES_TURNCOUNT_1 = "What do you want the Turn count to be?";
 	public static final String SETUP_RULES_TURNCOUNT_2 = "Default: " + Game.TURN_COUNT + ", Min: 5, Max: " + Integer.MAX_VALUE;
+	public static final String SETUP_STRATEGY = "Which strategy should the computer use?";
+	public static final String SETUP_STRATEGY_DEFAULT = "Default: minimax (fewest guesses in the worst case), entropy and expected (fewer guesses on average), anytime (answers within a second)";
 	public static final String SETUP_RULES_ADDPIN = "Would you like to add a Pin?";
 	public static final String SETEUP_RULES_NEWPIN = "Pin name";
 	
@@ -63,14 +66,56 @@ public class Resources {
 	public static final String PHASE2_DEBUG_1 = "Result";
 	public static final String PHASE2_DEBUG_2 = "Can win";
 	public static final String PHASE2_DEBUG_3 = "Pair count";
+	public static final String PHASE2_DEBUG_4 = "Cache";
 	public static final String PHASE2_CALCULATING = "Calculating, please wait";
 	
+	public static final String SIMULATION_USAGE = "Usage: <pins> <colors> [games] [seed] [minimax|entropy|expected|random|sampling|constraint|genetic|anytime]";
+	public static final String SIMULATION_TOO_LARGE = "%1$s has more than %2$d codes, %3$s can not play it. Use sampling";
+	public static final String SIMULATION_START = "Simulating %1$s with %2$s";
+	public static final String SIMULATION_GAMES = "Games: %1$d, lost: %2$d";
+	public static final String SIMULATION_GUESSES = "Guesses: average %1$.4f, max %2$d";
+	public static final String SIMULATION_DISTRIBUTION = "\t%1$2d: %2$d";
+	public static final String SIMULATION_LATENCY = "Move (ms): average %1$.3f, p50 %2$.3f, p99 %3$.3f, max %4$.3f";
+	public static final String SIMULATION_TIME = "Time (ms): %1$.1f";
+	public static final String SIMULATION_CACHE = "Cache: %1$s";
+	
+	public static final String SERVER_USAGE = "Usage: [port] [max sessions] [pins] [turns] [minimax|entropy|expected|random|sampling|constraint|genetic|anytime]";
+	public static final String SERVER_START = "Listening on %1$s for up to %2$d players, %3$s";
+	public static final String SERVER_VIRTUAL = "one virtual thread per player";
+	public static final String SERVER_PLATFORM = "one thread per player";
+	public static final String SERVER_FULL = "The server is full, please try again later";
+	public static final String SERVER_SHUTDOWN = "The server is shutting down, goodbye";
+	public static final String SERVER_IDLE = "You have been idle for too long, goodbye";
+	
+	public static final String SOLVER_USAGE = "Usage: [port] [cache size]";
+	public static final String SOLVER_START = "Answering on http://localhost:%1$d%2$s with %3$d workers";
+	public static final String ERROR_SOLVER_NUMBER = "%1$s has to be a number";
+	public static final String ERROR_SOLVER_STRATEGY = "Unknown strategy: %1$s";
+	public static final String ERROR_SOLVER_TURN = "A turn has to look like CODE:black:white, not %1$s";
+	public static final String ERROR_SOLVER_FEEDBACK = "No code gives %1$d black and %2$d white pins";
+	public static final String ERROR_SOLVER_SOLVED = "The code was already found by %1$s";
+	public static final String ERROR_SOLVER_INCONSISTENT = "No code fits every turn of the history";
+	public static final String ERROR_SOLVER_DEADLINE = "No answer within %1$d ms";
+	public static final String ERROR_SOLVER_METHOD = "Only GET and POST are supported";
+	
+	public static final String BENCH_HEADER = "%1$-26s %2$-8s %3$14s %4$14s";
+	public static final String BENCH_RESULT = "%1$-26s %2$-8s %3$14.1f %4$14.1f";
+	
+	public static final String CHECK_USAGE = "Usage: <pins> <colors> [histories] [seed]";
+	public static final String CHECK_START = "Checking %1$d histories of %2$s against brute force";
+	public static final String CHECK_MISMATCH = "History %1$d: %2$s, turns %3$s";
+	public static final String CHECK_COUNT = "count gave %1$d instead of %2$d";
+	public static final String CHECK_FIND_ALL = "findAll gave %1$d codes instead of the %2$d consistent codes";
+	public static final String CHECK_FIND_ONE = "findOne gave %1$d with %2$d consistent codes";
+	public static final String CHECK_GAVE_UP = "the randomized findOne gave up";
+	public static final String CHECK_RESULT = "Histories: %1$d, with a mistake: %2$d, without a consistent code: %3$d, randomized searches that gave up: %4$d, mismatches: %5$d, time (ms): %6$.1f";
+	
 	public static final String ERROR_PREFIX = "Error: ";
-	public static final String ERROR_CODE_SHORT = "Your code is too short. Please enter a code of " + Game.PIN_COUNT + " characters";
-	public static final String ERROR_CODE_LONG = "Your code is too long. Please enter a code of " + Game.PIN_COUNT + " characters";
+	public static final String ERROR_CODE_SHORT = "Your code is too short. Please enter a code of %1$d characters";
+	public static final String ERROR_CODE_LONG = "Your code is too long. Please enter a code of %1$d characters";
 	public static final String ERROR_CODE_INVALID = "Your code contains one or more invalid characters";
-	public static final String ERROR_MAX_TURNS= "You have excedded the maximum number of turns (" + Game.TURN_COUNT + ")";
-	public static final String ERROR_TURNSET_1 = "is larger then the maximum number of pins (" + Game.PIN_COUNT + ")";
+	public static final String ERROR_MAX_TURNS= "You have excedded the maximum number of turns (%1$d)";
+	public static final String ERROR_TURNSET_1 = "is larger then the maximum number of pins (%1$d)";
 	public static final String ERROR_TURNSET_2 = "can not be lower than 0";
 	public static final String ERROR_TURNFORMAT = "Input string was not in the right format: #,#";
 	public static final String ERROR_CHAR_LONG = "You can only input one character";
@@ -80,4 +125,6 @@ public class Resources {
 	public static final String ERROR_NUMBER_MIN = "Number is lower than minimum value: [%1$d]";
 	public static final String ERROR_NUMBER = "Input can only be a number";
 	public static final String ERROR_INVALID = "Input invalid. " + TUTORIAL_INPUT;
+	public static final String ERROR_NO_QUESTION = "There is no question to answer";
+	public static final String ERROR_INPUT_CLOSED = "The input was closed";
 }
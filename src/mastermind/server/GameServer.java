@@ -0,0 +1,572 @@
+package mastermind.server;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketAddress;
+import java.net.SocketTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import mastermind.GameSession;
+import mastermind.Mastermind;
+import mastermind.Match;
+import mastermind.Rules;
+import mastermind.SessionRegistry;
+import mastermind.Step;
+import mastermind.console.io.Question;
+import mastermind.console.io.Special;
+import mastermind.dialog.Resources;
+
+/**
+ * Serves the console game over TCP, one GameSession per connection.
+ * <p>The protocol is the console itself: the server sends the same text the console prints, including the prompt of
+ * every question, and every line the client sends is the answer to the open question. Help and the specials of
+ * {@code Mastermind.createSpecials} work like in the console, but every connection has its own specials, acting on its
+ * own session; {@code x} closes the connection.
+ * <p>Every connection is handled on its own virtual thread when the JVM has them (Java 21 and up), so blocking reads
+ * cost no platform thread. On older JVMs a cached pool of platform threads is used instead. At most
+ * {@code maxSessions} connections are served at once; further connections are told the server is full and closed.
+ * Connections that send nothing for {@code IDLE_MILLIS} are closed, and so are connections that stop reading for
+ * {@code WRITE_MILLIS} while the server writes to them.
+ * <p>{@code shutdown(long)} stops accepting connections, gives the running games some time to finish, then asks the
+ * connections that are left to say goodbye and close, and finally closes the ones that did not.
+ * @author Tom van Nimwegen
+ * @see Match
+ */
+public class GameServer implements Closeable
+{
+	/**
+	 * The default maximum number of connections served at once
+	 */
+	public static int MAX_SESSIONS = 10_000;
+	/**
+	 * The time a connection may send nothing before it is closed, in milliseconds
+	 */
+	public static int IDLE_MILLIS = 10 * 60 * 1000;
+	/**
+	 * The time a write to a connection may take before the connection is closed, in milliseconds. A client that stops
+	 * reading can not hold on to its connection
+	 */
+	public static long WRITE_MILLIS = 30_000;
+	/**
+	 * The time {@code close()} gives the running games to finish, in milliseconds
+	 */
+	public static long SHUTDOWN_MILLIS = 5000;
+
+	/**
+	 * The rules of every session
+	 */
+	private final Rules _rules;
+	/**
+	 * The maximum number of connections served at once
+	 */
+	private final int _maxSessions;
+	/**
+	 * A permit for every connection that can still be served
+	 */
+	private final Semaphore _permits;
+	/**
+	 * The sessions of the connections being served
+	 */
+	private final SessionRegistry _sessions = new SessionRegistry();
+	/**
+	 * The connections being served
+	 */
+	private final Set<Connection> _connections = ConcurrentHashMap.newKeySet();
+
+	/**
+	 * Runs the connections
+	 */
+	private ExecutorService _executor;
+	/**
+	 * Tells if the connections run on virtual threads
+	 */
+	private boolean _virtual;
+	private ServerSocket _listener;
+	/**
+	 * Accepts the connections
+	 */
+	private Thread _acceptor;
+	/**
+	 * Closes the connections that are stuck writing for more than {@code WRITE_MILLIS}
+	 */
+	private ScheduledExecutorService _watchdog;
+	private volatile boolean _running;
+
+	/**
+	 * Constructs a new GameServer serving at most {@code MAX_SESSIONS} connections at once
+	 * @param rules the rules of every session
+	 */
+	public GameServer(Rules rules)
+	{
+		this(rules, MAX_SESSIONS);
+	}
+
+	/**
+	 * Constructs a new GameServer
+	 * @param rules the rules of every session
+	 * @param maxSessions the maximum number of connections served at once
+	 */
+	public GameServer(Rules rules, int maxSessions)
+	{
+		if(maxSessions < 1)
+			throw new IllegalArgumentException(Integer.toString(maxSessions));
+
+		this._rules = rules;
+		this._maxSessions = maxSessions;
+		this._permits = new Semaphore(maxSessions);
+	}
+
+	/**
+	 * Starts serving on a port of the loopback address
+	 * @param port the port, or 0 for any free port
+	 * @throws IOException if the port can not be bound
+	 */
+	public void start(int port) throws IOException
+	{
+		this.start(new InetSocketAddress(InetAddress.getLoopbackAddress(), port));
+	}
+
+	/**
+	 * Starts serving on an address
+	 * @param address the address to bind
+	 * @throws IOException if the address can not be bound
+	 * @throws IllegalStateException if the server was started before
+	 */
+	public synchronized void start(SocketAddress address) throws IOException
+	{
+		if(this._listener != null)
+			throw new IllegalStateException();
+
+		ServerSocket listener = new ServerSocket();
+		listener.setReuseAddress(true);
+		listener.bind(address);
+
+		this._listener = listener;
+		this._executor = newExecutor();
+		this._running = true;
+
+		this._watchdog = Executors.newSingleThreadScheduledExecutor(r ->
+		{
+			Thread t = new Thread(r, "game-watchdog");
+			t.setDaemon(true);
+			return t;
+		});
+		this._watchdog.scheduleWithFixedDelay(this::checkWrites, 1, 1, TimeUnit.SECONDS);
+
+		//the acceptor is not a daemon, it keeps the program running until the server is shut down
+		this._acceptor = new Thread(this::accept, "game-server");
+		this._acceptor.start();
+	}
+
+	/**
+	 * Creates an executor running every task on a new virtual thread, or a cached pool of daemon threads if there are
+	 * no virtual threads. Virtual threads are looked up by reflection, so this compiles for older JVMs
+	 */
+	private ExecutorService newExecutor()
+	{
+		try
+		{
+			ExecutorService executor = (ExecutorService)Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+			this._virtual = true;
+			return executor;
+		}
+		catch(ReflectiveOperationException e)
+		{
+			this._virtual = false;
+			return Executors.newCachedThreadPool(r ->
+			{
+				Thread t = new Thread(r, "game-connection");
+				t.setDaemon(true);
+				return t;
+			});
+		}
+	}
+
+	/**
+	 * Gets the port the server is listening on
+	 * @return the port, or -1 if the server was not started
+	 */
+	public int getPort()
+	{
+		return this._listener == null ? -1 : this._listener.getLocalPort();
+	}
+
+	/**
+	 * Gets the maximum number of connections served at once
+	 */
+	public int getMaxSessions()
+	{
+		return this._maxSessions;
+	}
+
+	/**
+	 * Gets the sessions of the connections being served
+	 */
+	public SessionRegistry getSessions()
+	{
+		return this._sessions;
+	}
+
+	/**
+	 * Checks if the connections run on virtual threads
+	 */
+	public boolean isVirtual()
+	{
+		return this._virtual;
+	}
+
+	/**
+	 * Checks if the server accepts connections
+	 */
+	public boolean isRunning()
+	{
+		return this._running;
+	}
+
+	/**
+	 * Accepts connections until the server is shut down
+	 */
+	private void accept()
+	{
+		while(this._running)
+		{
+			Socket socket;
+			try
+			{
+				socket = this._listener.accept();
+			}
+			catch(IOException e)
+			{
+				//the listener is closed when the server shuts down
+				if(!this._running)
+					return;
+
+				continue;
+			}
+
+			if(!this._permits.tryAcquire())
+			{
+				reject(socket, Resources.SERVER_FULL);
+				continue;
+			}
+
+			Connection connection = new Connection(socket);
+			this._connections.add(connection);
+
+			try
+			{
+				this._executor.execute(connection);
+			}
+			catch(RejectedExecutionException e)
+			{
+				this.closed(connection);
+				reject(socket, Resources.SERVER_SHUTDOWN);
+			}
+		}
+	}
+
+	/**
+	 * Tells a client why it is not served and closes its connection
+	 */
+	private static void reject(Socket socket, String message)
+	{
+		try(Socket s = socket)
+		{
+			PrintWriter out = new PrintWriter(new OutputStreamWriter(s.getOutputStream(), StandardCharsets.UTF_8));
+			out.print(message + Resources.NL);
+			out.flush();
+		}
+		catch(IOException e)
+		{
+			//the client is gone already
+		}
+	}
+
+	/**
+	 * Releases the permit of a connection that is done
+	 */
+	private void closed(Connection connection)
+	{
+		if(this._connections.remove(connection))
+			this._permits.release();
+	}
+
+	/**
+	 * Closes the connections that have been writing for more than {@code WRITE_MILLIS}
+	 */
+	private void checkWrites()
+	{
+		long now = System.nanoTime();
+		for (Connection connection : this._connections)
+		{
+			connection.checkWrite(now);
+		}
+	}
+
+	/**
+	 * Stops accepting connections, waits for the running games to finish and closes the connections that are left
+	 * @param timeoutMillis the time the running games get to finish, in milliseconds
+	 * @throws InterruptedException if the current thread is interrupted while waiting
+	 */
+	public void shutdown(long timeoutMillis) throws InterruptedException
+	{
+		synchronized(this)
+		{
+			if(!this._running)
+				return;
+
+			this._running = false;
+		}
+
+		try
+		{
+			this._listener.close();
+		}
+		catch(IOException e)
+		{
+			//the listener is closed either way
+		}
+
+		this._acceptor.join();
+		this._executor.shutdown();
+
+		if(!this._executor.awaitTermination(timeoutMillis, TimeUnit.MILLISECONDS))
+		{
+			for (Connection connection : this._connections)
+			{
+				connection.close(Resources.SERVER_SHUTDOWN);
+			}
+
+			//the connections that did not finish saying goodbye are closed without it
+			if(!this._executor.awaitTermination(timeoutMillis, TimeUnit.MILLISECONDS))
+			{
+				for (Connection connection : this._connections)
+				{
+					connection.abort();
+				}
+			}
+		}
+
+		this._watchdog.shutdownNow();
+	}
+
+	/**
+	 * Shuts the server down, giving the running games {@code SHUTDOWN_MILLIS} to finish
+	 */
+	@Override
+	public void close() throws IOException
+	{
+		try
+		{
+			this.shutdown(SHUTDOWN_MILLIS);
+		}
+		catch(InterruptedException e)
+		{
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	/**
+	 * A single client, playing a Match in its own session
+	 */
+	private class Connection implements Runnable
+	{
+		private final Socket _socket;
+		/**
+		 * Only written to by the thread of the connection
+		 */
+		private PrintWriter _out;
+		/**
+		 * Tells if the connection is closed, by the client or the server
+		 */
+		private volatile boolean _closed;
+		/**
+		 * The message to send before the connection is closed by the server. NULL if the server did not close it
+		 */
+		private volatile String _goodbye;
+		/**
+		 * The time the current write started, in nanoseconds. 0 if the connection is not writing
+		 */
+		private volatile long _writeStart;
+
+		Connection(Socket socket)
+		{
+			this._socket = socket;
+		}
+
+		@Override
+		public void run()
+		{
+			GameSession session = _sessions.create(_rules);
+
+			try(Socket socket = this._socket)
+			{
+				socket.setSoTimeout(IDLE_MILLIS);
+				BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+
+				this._out = new PrintWriter(new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8));
+
+				this.play(session, in);
+
+				if(this._goodbye != null)
+				{
+					this.write(Resources.NL + this._goodbye + Resources.NL);
+					this.flush();
+				}
+			}
+			catch(IOException e)
+			{
+				//the client is gone, or the server closed the connection
+			}
+			finally
+			{
+				_sessions.remove(session.getId());
+				closed(this);
+			}
+		}
+
+		/**
+		 * Plays a Match with the client until it is done or the connection is closed
+		 */
+		private void play(GameSession session, BufferedReader in) throws IOException
+		{
+			List<Special> specials = Mastermind.createSpecials(() -> session, session::isDebugMode, session::setDebugMode, line -> this.write(line + Resources.NL), () -> this._closed = true);
+
+			this.write(Resources.FLAVOR_OPENING_HELLO_1 + Resources.NL + Resources.FLAVOR_OPENING_HELLO_2 + Resources.NL + Resources.TUTORIAL_GAME_QUIT + Resources.NL + Resources.NL);
+
+			Match match = new Match(session);
+
+			try
+			{
+				Step step = match.start();
+				this.write(step.getOutput());
+
+				while(!step.isDone() && !this._closed)
+				{
+					this.write(step.getPrompt());
+					this.flush();
+
+					String line;
+					try
+					{
+						line = in.readLine();
+					}
+					catch(SocketTimeoutException e)
+					{
+						this.write(Resources.NL + Resources.SERVER_IDLE + Resources.NL);
+						this.flush();
+						return;
+					}
+
+					if(line == null)
+						return;
+
+					String input = Question.filter(line, step.getAnswer(), specials, session.isDebugMode(), output -> this.write(output + Resources.NL));
+
+					//the input was help or a special, ask again
+					if(input == null)
+					{
+						step = step.again();
+						continue;
+					}
+
+					step = match.submit(input);
+
+					if(!step.isRetry())
+						this.write(Resources.NL);
+
+					this.write(step.getOutput());
+				}
+
+				this.flush();
+			}
+			finally
+			{
+				//the match ends here when the client quits or the connection is closed in the middle of a game
+				match.close();
+			}
+		}
+
+		/**
+		 * Writes to the client. A full buffer is sent on the way, so the write can block; see {@code checkWrite(long)}
+		 */
+		private void write(String text)
+		{
+			this._writeStart = System.nanoTime();
+			this._out.print(text);
+			this._writeStart = 0;
+		}
+
+		private void flush()
+		{
+			this._writeStart = System.nanoTime();
+			this._out.flush();
+			this._writeStart = 0;
+		}
+
+		/**
+		 * Closes the connection if its current write started more than {@code WRITE_MILLIS} before a time
+		 * @param now the time in nanoseconds
+		 */
+		void checkWrite(long now)
+		{
+			long start = this._writeStart;
+			if(start != 0 && now - start > TimeUnit.MILLISECONDS.toNanos(WRITE_MILLIS))
+				this.abort();
+		}
+
+		/**
+		 * Asks the connection to tell the client why it is closed and to close. Never blocks: the input of the socket is
+		 * shut down, so the thread of the connection stops reading and says goodbye itself. Can be called from any thread
+		 */
+		void close(String message)
+		{
+			this._goodbye = message;
+			this._closed = true;
+
+			try
+			{
+				this._socket.shutdownInput();
+			}
+			catch(IOException e)
+			{
+				//the socket is closed already
+			}
+		}
+
+		/**
+		 * Closes the socket without saying goodbye, which ends any read or write that is blocking. Can be called from
+		 * any thread
+		 */
+		void abort()
+		{
+			this._closed = true;
+
+			try
+			{
+				this._socket.close();
+			}
+			catch(IOException e)
+			{
+				//closed either way
+			}
+		}
+	}
+}
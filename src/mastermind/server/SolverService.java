@@ -0,0 +1,534 @@
+package mastermind.server;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UnsupportedEncodingException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import mastermind.Game;
+import mastermind.PackedCode;
+import mastermind.PhaseComputer;
+import mastermind.Pin;
+import mastermind.PinRow;
+import mastermind.Rules;
+import mastermind.TurnResult;
+import mastermind.console.io.PinRowAnswer;
+import mastermind.dialog.Resources;
+import mastermind.solver.Constraints;
+import mastermind.solver.Solver;
+import mastermind.solver.Strategy;
+
+/**
+ * Answers "what is the next best guess after this history?" over HTTP, using the computer player of
+ * {@code PhaseComputer}.
+ * <p>A request is a GET or POST to {@code PATH} with these parameters, in the query or as a form in the body:
+ * <ul>
+ * <li>{@code pins}: the number of pins in a code, {@code Game.PIN_COUNT} by default</li>
+ * <li>{@code colors}: the number of Pins that can be used, all valid Pins by default</li>
+ * <li>{@code strategy}: the name of the strategy, see {@code Strategy}. {@code Game.STRATEGY} by default</li>
+ * <li>{@code history}: the turns so far, separated by commas. A turn is the code, its black pins and its white pins,
+ * separated by colons, for example {@code AABB:1:0,CCDD:0:2}. Empty by default</li>
+ * <li>{@code deadline}: the time to wait for the answer in milliseconds, {@code DEADLINE_MILLIS} by default and at
+ * most {@code MAX_DEADLINE_MILLIS}</li>
+ * </ul>
+ * The answer is a JSON object with the guess, the number of remaining candidates and whether that number is exact,
+ * for example {@code {"guess":"ABCD","candidates":12,"exact":true,"cached":false}}. Invalid requests get a 400 with an
+ * {@code error}, and requests that are not answered before their deadline a 503.
+ * <p>The candidates only depend on the turns, not on their order, so the turns are put in a canonical order, without
+ * duplicates, before they are given to the Solver. The rules and the canonical turns are the fingerprint of the
+ * request; the answers of the last {@code cacheSize} fingerprints are kept in an LRU cache. Identical requests that
+ * arrive while the first one is still being solved wait for the same answer.
+ * <p>Answers are computed on a pool with a thread for every core. A request that runs out of time leaves its answer to
+ * be computed and cached anyway, so asking again later is answered from the cache.
+ * @author Tom van Nimwegen
+ * @see PhaseComputer#createSolver(Rules)
+ */
+public class SolverService implements Closeable
+{
+	/**
+	 * The path of the endpoint
+	 */
+	public static final String PATH = "/next";
+	/**
+	 * The default number of answers in the cache
+	 */
+	public static int CACHE_SIZE = 10_000;
+	/**
+	 * The default deadline of a request in milliseconds
+	 */
+	public static long DEADLINE_MILLIS = 5000;
+	/**
+	 * The largest deadline a request can ask for in milliseconds
+	 */
+	public static long MAX_DEADLINE_MILLIS = 60_000;
+	/**
+	 * The number of candidates after which counting stops when the code space is not enumerated
+	 */
+	public static long COUNT_LIMIT = 1_000_000;
+	/**
+	 * The number of search nodes counting may take when the code space is not enumerated
+	 */
+	public static long COUNT_BUDGET = 10_000_000;
+
+	/**
+	 * The number of answers in the cache
+	 */
+	private final int _cacheSize;
+	/**
+	 * The answers by fingerprint, least recently used first
+	 */
+	private final Map<String, CompletableFuture<Answer>> _cache;
+	/**
+	 * Computes the answers, a thread for every core
+	 */
+	private final ExecutorService _workers;
+	/**
+	 * Handles the requests and waits for their answers
+	 */
+	private final ExecutorService _dispatcher;
+
+	private HttpServer _server;
+
+	/**
+	 * Constructs a new SolverService with a cache of {@code CACHE_SIZE} answers
+	 */
+	public SolverService()
+	{
+		this(CACHE_SIZE);
+	}
+
+	/**
+	 * Constructs a new SolverService
+	 * @param cacheSize the number of answers in the cache
+	 */
+	public SolverService(int cacheSize)
+	{
+		if(cacheSize < 1)
+			throw new IllegalArgumentException(Integer.toString(cacheSize));
+
+		this._cacheSize = cacheSize;
+		this._cache = new LinkedHashMap<String, CompletableFuture<Answer>>(16, 0.75f, true)
+		{
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<String, CompletableFuture<Answer>> eldest)
+			{
+				return this.size() > SolverService.this._cacheSize;
+			}
+		};
+
+		this._workers = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors(), daemon("solver-worker"));
+		this._dispatcher = Executors.newCachedThreadPool(daemon("solver-http"));
+	}
+
+	private static java.util.concurrent.ThreadFactory daemon(String name)
+	{
+		AtomicInteger count = new AtomicInteger();
+		return r ->
+		{
+			Thread t = new Thread(r, name + "-" + count.incrementAndGet());
+			t.setDaemon(true);
+			return t;
+		};
+	}
+
+	/**
+	 * Starts answering on a port of the loopback address
+	 * @param port the port, or 0 for any free port
+	 * @throws IOException if the port can not be bound
+	 * @throws IllegalStateException if the service was started before
+	 */
+	public synchronized void start(int port) throws IOException
+	{
+		if(this._server != null)
+			throw new IllegalStateException();
+
+		this._server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+		this._server.createContext(PATH, this::handle);
+		this._server.setExecutor(this._dispatcher);
+		this._server.start();
+	}
+
+	/**
+	 * Gets the port the service is answering on
+	 * @return the port, or -1 if the service was not started
+	 */
+	public int getPort()
+	{
+		return this._server == null ? -1 : this._server.getAddress().getPort();
+	}
+
+	/**
+	 * Gets the number of threads computing answers
+	 */
+	public int getWorkers()
+	{
+		return Runtime.getRuntime().availableProcessors();
+	}
+
+	/**
+	 * Gets the number of answers in the cache, including the ones still being computed
+	 */
+	public int getCacheCount()
+	{
+		synchronized(this._cache)
+		{
+			return this._cache.size();
+		}
+	}
+
+	/**
+	 * Stops answering. Requests being handled get up to a second to finish
+	 */
+	@Override
+	public synchronized void close()
+	{
+		if(this._server != null)
+			this._server.stop(1);
+
+		this._workers.shutdownNow();
+		this._dispatcher.shutdownNow();
+	}
+
+	/**
+	 * Handles a single request
+	 */
+	private void handle(HttpExchange exchange) throws IOException
+	{
+		try
+		{
+			String form;
+			if("GET".equals(exchange.getRequestMethod()))
+				form = exchange.getRequestURI().getRawQuery();
+			else if("POST".equals(exchange.getRequestMethod()))
+				form = new String(readAll(exchange.getRequestBody()), StandardCharsets.UTF_8);
+			else
+			{
+				respond(exchange, 405, error(Resources.ERROR_SOLVER_METHOD));
+				return;
+			}
+
+			Map<String, String> params = parseForm(form);
+			Request request;
+			try
+			{
+				request = new Request(params);
+			}
+			catch(IllegalArgumentException e)
+			{
+				respond(exchange, 400, error(e.getMessage()));
+				return;
+			}
+
+			respond(exchange, request);
+		}
+		finally
+		{
+			exchange.close();
+		}
+	}
+
+	/**
+	 * Answers a valid request, from the cache or by solving it before its deadline
+	 */
+	private void respond(HttpExchange exchange, Request request) throws IOException
+	{
+		String key = request.fingerprint();
+		CompletableFuture<Answer> answer;
+		boolean cached;
+
+		synchronized(this._cache)
+		{
+			answer = this._cache.get(key);
+			cached = answer != null;
+
+			if(!cached)
+			{
+				answer = CompletableFuture.supplyAsync(request::solve, this._workers);
+				this._cache.put(key, answer);
+			}
+		}
+
+		try
+		{
+			Answer a = answer.get(request._deadline, TimeUnit.MILLISECONDS);
+			respond(exchange, 200, a.toJson(cached));
+		}
+		catch(TimeoutException e)
+		{
+			respond(exchange, 503, error(String.format(Resources.ERROR_SOLVER_DEADLINE, request._deadline)));
+		}
+		catch(InterruptedException e)
+		{
+			Thread.currentThread().interrupt();
+			respond(exchange, 503, error(String.format(Resources.ERROR_SOLVER_DEADLINE, request._deadline)));
+		}
+		catch(ExecutionException e)
+		{
+			//failed answers are not kept, so the request can be tried again
+			synchronized(this._cache)
+			{
+				this._cache.remove(key, answer);
+			}
+
+			//a history no code is consistent with is found while solving, but it is still an invalid request
+			int status = e.getCause() instanceof IllegalArgumentException ? 400 : 500;
+			respond(exchange, status, error(String.valueOf(e.getCause().getMessage())));
+		}
+	}
+
+	private static void respond(HttpExchange exchange, int status, String json) throws IOException
+	{
+		byte[] body = json.getBytes(StandardCharsets.UTF_8);
+		exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+		exchange.sendResponseHeaders(status, body.length);
+
+		try(OutputStream out = exchange.getResponseBody())
+		{
+			out.write(body);
+		}
+	}
+
+	private static String error(String message)
+	{
+		return "{\"error\":\"" + message.replace("\\", "\\\\").replace("\"", "\\\"") + "\"}";
+	}
+
+	private static byte[] readAll(InputStream in) throws IOException
+	{
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		byte[] buffer = new byte[4096];
+		for (int n; (n = in.read(buffer)) > 0;)
+		{
+			out.write(buffer, 0, n);
+		}
+
+		return out.toByteArray();
+	}
+
+	/**
+	 * Parses form encoded parameters, like a query string
+	 */
+	private static Map<String, String> parseForm(String form) throws UnsupportedEncodingException
+	{
+		Map<String, String> params = new HashMap<String, String>();
+		if(form == null || form.isEmpty())
+			return params;
+
+		for (String pair : form.split("&"))
+		{
+			int split = pair.indexOf('=');
+			String name = split < 0 ? pair : pair.substring(0, split);
+			String value = split < 0 ? Resources.EMPTY : pair.substring(split + 1);
+
+			params.put(URLDecoder.decode(name, "UTF-8"), URLDecoder.decode(value, "UTF-8").trim());
+		}
+
+		return params;
+	}
+
+	/**
+	 * A parsed request: its rules and its turns in canonical order
+	 */
+	private static class Request
+	{
+		private final Rules _rules;
+		/**
+		 * The turns as packed guess and packed feedback, sorted and without duplicates
+		 */
+		private final long[][] _turns;
+		private final long _deadline;
+
+		/**
+		 * Parses a request
+		 * @throws IllegalArgumentException if a parameter is not valid
+		 */
+		Request(Map<String, String> params)
+		{
+			int pins = number(params, "pins", Game.PIN_COUNT);
+			int colors = number(params, "colors", Pin.values().length);
+
+			Strategy strategy = Game.STRATEGY;
+			if(params.containsKey("strategy"))
+			{
+				strategy = Strategy.fromName(params.get("strategy"));
+				if(strategy == null)
+					throw new IllegalArgumentException(String.format(Resources.ERROR_SOLVER_STRATEGY, params.get("strategy")));
+			}
+
+			this._rules = new Rules(pins, Game.TURN_COUNT, colors, strategy);
+			this._deadline = Math.min(Math.max(number(params, "deadline", (int)DEADLINE_MILLIS), 1), MAX_DEADLINE_MILLIS);
+
+			String history = params.getOrDefault("history", Resources.EMPTY);
+			String[] turns = history.isEmpty() ? new String[0] : history.split(",");
+			long[][] parsed = new long[turns.length][];
+
+			for (int t = 0; t < turns.length; t++)
+			{
+				String[] parts = turns[t].trim().split(":");
+				if(parts.length != 3)
+					throw new IllegalArgumentException(String.format(Resources.ERROR_SOLVER_TURN, turns[t]));
+
+				PinRow code = PinRowAnswer.parse(parts[0].trim(), this._rules);
+				if(code.getLength() != pins || parts[0].trim().length() != pins)
+					throw new IllegalArgumentException(String.format(Resources.ERROR_CODE_LONG, pins));
+
+				TurnResult result;
+				try
+				{
+					result = TurnResult.valueOf(Integer.parseInt(parts[1].trim()), Integer.parseInt(parts[2].trim()), pins);
+				}
+				catch(NumberFormatException e)
+				{
+					throw new IllegalArgumentException(String.format(Resources.ERROR_SOLVER_TURN, turns[t]));
+				}
+
+				//all pins but one in the right spot leaves no room for a pin in the wrong spot
+				if(result.getBlackPinCount() == pins - 1 && result.getWhitePinCount() == 1)
+					throw new IllegalArgumentException(String.format(Resources.ERROR_SOLVER_FEEDBACK, pins - 1, 1));
+				if(result.getBlackPinCount() == pins)
+					throw new IllegalArgumentException(String.format(Resources.ERROR_SOLVER_SOLVED, turns[t]));
+
+				parsed[t] = new long[] { code.toPacked(), result.getFeedback() };
+			}
+
+			//the candidates do not depend on the order of the turns, so neither does the answer
+			Arrays.sort(parsed, (a, b) -> a[0] != b[0] ? Long.compare(a[0], b[0]) : Long.compare(a[1], b[1]));
+
+			int distinct = 0;
+			for (int t = 0; t < parsed.length; t++)
+			{
+				if(distinct == 0 || parsed[distinct - 1][0] != parsed[t][0] || parsed[distinct - 1][1] != parsed[t][1])
+					parsed[distinct++] = parsed[t];
+			}
+
+			this._turns = Arrays.copyOf(parsed, distinct);
+		}
+
+		private static int number(Map<String, String> params, String name, int value)
+		{
+			if(!params.containsKey(name))
+				return value;
+
+			try
+			{
+				return Integer.parseInt(params.get(name));
+			}
+			catch(NumberFormatException e)
+			{
+				throw new IllegalArgumentException(String.format(Resources.ERROR_SOLVER_NUMBER, name));
+			}
+		}
+
+		/**
+		 * Gets the fingerprint of this request: its rules and its canonical turns
+		 */
+		String fingerprint()
+		{
+			StringBuilder out = new StringBuilder();
+			out.append(this._rules.getSpace()).append('/').append(this._rules.getStrategy());
+
+			for (long[] turn : this._turns)
+			{
+				out.append('/').append(Long.toHexString(turn[0])).append(':').append(turn[1]);
+			}
+
+			return out.toString();
+		}
+
+		/**
+		 * Replays the turns on a new Solver and picks the next guess
+		 * @throws IllegalArgumentException if no code is consistent with the turns
+		 */
+		Answer solve()
+		{
+			Solver solver = PhaseComputer.createSolver(this._rules);
+
+			try
+			{
+				return this.solve(solver);
+			}
+			finally
+			{
+				solver.release();
+			}
+		}
+
+		/**
+		 * Replays the turns on a Solver without history and picks the next guess
+		 */
+		private Answer solve(Solver solver)
+		{
+			for (long[] turn : this._turns)
+			{
+				solver.addPlayed(turn[0]);
+
+				//the Solver would start over with every code that was not played, which is no answer to this history
+				if(!solver.addFeedback(turn[0], (int)turn[1]))
+					throw new IllegalArgumentException(Resources.ERROR_SOLVER_INCONSISTENT);
+			}
+
+			if(solver.isEnumerated())
+			{
+				long candidates = solver.getCandidates().size();
+				return new Answer(PinRow.fromPacked(solver.nextGuess(), this._rules.getPinCount()), candidates, true);
+			}
+
+			//there are too many codes to keep track of, count them as far as the budget allows
+			Constraints constraints = Constraints.of(solver);
+			constraints.setBudget(COUNT_BUDGET);
+			long count = constraints.count(COUNT_LIMIT);
+
+			if(count == 0 && !constraints.isCut())
+				throw new IllegalArgumentException(Resources.ERROR_SOLVER_INCONSISTENT);
+
+			return new Answer(PinRow.fromPacked(solver.nextGuess(), this._rules.getPinCount()), count, !constraints.isCut() && count < COUNT_LIMIT);
+		}
+	}
+
+	/**
+	 * The answer to a request
+	 */
+	private static class Answer
+	{
+		private final PinRow _guess;
+		/**
+		 * The number of candidates left, a lower bound if not {@code _exact}
+		 */
+		private final long _candidates;
+		private final boolean _exact;
+
+		Answer(PinRow guess, long candidates, boolean exact)
+		{
+			this._guess = guess;
+			this._candidates = candidates;
+			this._exact = exact;
+		}
+
+		String toJson(boolean cached)
+		{
+			return "{\"guess\":\"" + this._guess + "\",\"candidates\":" + this._candidates + ",\"exact\":" + this._exact + ",\"cached\":" + cached + "}";
+		}
+	}
+}
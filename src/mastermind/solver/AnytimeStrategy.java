@@ -0,0 +1,279 @@
+package mastermind.solver;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import mastermind.PackedCode;
+
+/**
+ * A GuessStrategy that always answers within a time budget, using the best guess it found so far.
+ * <p>The guess is searched for on a worker thread while the calling thread waits for it. When the budget runs out the
+ * worker is interrupted, and it stops at the next guess it would evaluate and returns the best guess so far. Because
+ * the search may be cut off at any point, guesses are evaluated in order of priority: the remaining candidates first,
+ * as they can win right away, then the codes that were not played yet. With a Symmetry of the history only the first code of every class is
+ * evaluated.
+ * <p>When there are at most {@code EXHAUSTIVE_LIMIT} candidates they are evaluated exactly with the partition score
+ * of a PartitionStrategy, {@code MinimaxStrategy} by default. When there are more, or the code space is not
+ * enumerated, the move is left to a {@code SamplingStrategy}, a {@code ConstraintStrategy} by default, which stops
+ * searching and scoring when it is interrupted.
+ * <p>Moves that can be answered right away, like the opening or the last candidate, do not use the worker.
+ * @author Tom van Nimwegen
+ * @see GuessStrategy
+ */
+public class AnytimeStrategy implements GuessStrategy
+{
+	/**
+	 * The default time budget of a move in milliseconds
+	 */
+	public static long BUDGET_MILLIS = 1000;
+	/**
+	 * The maximum number of candidates that are evaluated exactly
+	 */
+	public static int EXHAUSTIVE_LIMIT = 10_000;
+
+	/**
+	 * The workers of all AnytimeStrategies. Daemon threads, so they never keep the program running
+	 */
+	private static final ExecutorService WORKERS = Executors.newCachedThreadPool(r ->
+	{
+		Thread t = new Thread(r, "anytime-worker");
+		t.setDaemon(true);
+		return t;
+	});
+
+	/**
+	 * The time budget of a move in nanoseconds
+	 */
+	private final long _budget;
+	/**
+	 * Scores a partition of the candidates, used when there are few enough candidates
+	 */
+	private final PartitionStrategy _exact;
+	/**
+	 * Picks a guess from a sample of the candidates, used when there are too many candidates
+	 */
+	private final SamplingStrategy _sampled;
+
+	/**
+	 * The partition histogram of the guess that is evaluated
+	 */
+	private int[] _histogram = new int[0];
+	/**
+	 * The representatives of the equivalence classes already evaluated
+	 */
+	private CandidateSet _seen;
+
+	/**
+	 * Constructs a new AnytimeStrategy with a budget of {@code BUDGET_MILLIS}
+	 */
+	public AnytimeStrategy()
+	{
+		this(BUDGET_MILLIS);
+	}
+
+	/**
+	 * Constructs a new AnytimeStrategy using minimax for few candidates and constraint propagation for many
+	 * @param budgetMillis the time budget of a move in milliseconds
+	 */
+	public AnytimeStrategy(long budgetMillis)
+	{
+		this(budgetMillis, new MinimaxStrategy(), new ConstraintStrategy());
+	}
+
+	/**
+	 * Constructs a new AnytimeStrategy
+	 * @param budgetMillis the time budget of a move in milliseconds
+	 * @param exact scores the partitions of the candidates when there are few enough candidates
+	 * @param sampled picks the guess when there are too many candidates
+	 */
+	public AnytimeStrategy(long budgetMillis, PartitionStrategy exact, SamplingStrategy sampled)
+	{
+		if(budgetMillis < 1)
+			throw new IllegalArgumentException(Long.toString(budgetMillis));
+
+		this._budget = TimeUnit.MILLISECONDS.toNanos(budgetMillis);
+		this._exact = exact;
+		this._sampled = sampled;
+	}
+
+	/**
+	 * Gets the time budget of a move in milliseconds
+	 */
+	public long getBudget()
+	{
+		return TimeUnit.NANOSECONDS.toMillis(this._budget);
+	}
+
+	@Override
+	public long nextGuess(Solver solver)
+	{
+		//nothing is known yet, play the opening
+		if(solver.getTurn() == 0)
+			return PartitionStrategy.opening(solver.getLength(), solver.getColors());
+
+		CandidateSet candidates = solver.getCandidates();
+		boolean exact = candidates != null && candidates.size() <= EXHAUSTIVE_LIMIT;
+
+		//there is only one code left, so that has to be it
+		if(exact && candidates.size() == 1)
+			return solver.getCode(candidates.nextIndex(0));
+
+		Search search = new Search(() -> exact ? this.search(solver) : this._sampled.nextGuess(solver));
+		Future<Long> result = WORKERS.submit(search);
+
+		try
+		{
+			try
+			{
+				return result.get(this._budget, TimeUnit.NANOSECONDS);
+			}
+			catch(TimeoutException e)
+			{
+				//out of time, the worker stops at its next check and returns its best guess so far
+				search.stop();
+				return result.get();
+			}
+		}
+		catch(InterruptedException e)
+		{
+			search.stop();
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException(e);
+		}
+		catch(ExecutionException e)
+		{
+			throw new IllegalStateException(e.getCause());
+		}
+	}
+
+	/**
+	 * Evaluates the candidates and then the other codes that were not played, until everything is evaluated or the
+	 * current thread is interrupted
+	 * @return the packed code of the best guess so far
+	 */
+	private long search(Solver solver)
+	{
+		CandidateSet candidates = solver.getCandidates();
+		FeedbackTable table = solver.getTable();
+		Symmetry symmetry = PartitionStrategy.SYMMETRY ? Symmetry.of(solver) : null;
+		int buckets = PackedCode.feedbackCount(solver.getLength());
+
+		if(this._histogram.length != buckets)
+			this._histogram = new int[buckets];
+
+		if(symmetry != null)
+		{
+			if(this._seen == null || this._seen.capacity() != table.size())
+				this._seen = new CandidateSet(table.size());
+			else
+				this._seen.clear();
+		}
+
+		//a candidate that is scored first wins every tie, like in PartitionStrategy
+		int best = candidates.nextIndex(0);
+
+		//without candidates start from the first code that was not played, or any code if every code was played
+		if(best < 0)
+		{
+			best = 0;
+			while(best < table.size() - 1 && solver.getPlayed().contains(best))
+			{
+				best++;
+			}
+		}
+		long bestScore = Long.MAX_VALUE;
+
+		//the first pass only evaluates candidates, the second pass the codes that are left
+		for (int pass = 0; pass < 2; pass++)
+		{
+			int guess = pass == 0 ? candidates.nextIndex(0) : 0;
+			for (; guess >= 0 && guess < table.size(); guess = pass == 0 ? candidates.nextIndex(guess + 1) : guess + 1)
+			{
+				if(Thread.currentThread().isInterrupted())
+					return solver.getCode(best);
+
+				if(pass == 1 && (candidates.contains(guess) || solver.getPlayed().contains(guess)))
+					continue;
+
+				if(symmetry != null && !this._seen.add(solver.indexOf(symmetry.canonical(table.getCode(guess)))))
+					continue;
+
+				long score = this._exact.evaluate(table, guess, candidates, this._histogram, bestScore);
+				if(score < bestScore)
+				{
+					best = guess;
+					bestScore = score;
+				}
+			}
+		}
+
+		return solver.getCode(best);
+	}
+
+	/**
+	 * The search of a single move, which can be stopped from another thread
+	 */
+	private static class Search implements Callable<Long>
+	{
+		/**
+		 * Runs the search on the worker
+		 */
+		private final Callable<Long> _task;
+		/**
+		 * The worker running the search. NULL before it started and after it finished
+		 */
+		private Thread _worker;
+		/**
+		 * Tells if the search was stopped
+		 */
+		private boolean _stopped;
+
+		Search(Callable<Long> task)
+		{
+			this._task = task;
+		}
+
+		@Override
+		public Long call() throws Exception
+		{
+			synchronized(this)
+			{
+				this._worker = Thread.currentThread();
+
+				//stopped before the worker got to it, return the first guess that comes up
+				if(this._stopped)
+					this._worker.interrupt();
+			}
+
+			try
+			{
+				return this._task.call();
+			}
+			finally
+			{
+				//the worker is reused, so it must not stay interrupted
+				synchronized(this)
+				{
+					this._worker = null;
+					Thread.interrupted();
+				}
+			}
+		}
+
+		/**
+		 * Interrupts the worker, so the search returns its best guess so far
+		 */
+		synchronized void stop()
+		{
+			this._stopped = true;
+
+			if(this._worker != null)
+				this._worker.interrupt();
+		}
+	}
+}
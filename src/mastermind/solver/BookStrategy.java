@@ -0,0 +1,53 @@
+package mastermind.solver;
+
+/**
+ * A GuessStrategy that plays from an OpeningBook.
+ * <p>As long as the history of the Solver is in the book the next guess is a single tree walk. When the feedback
+ * leaves the book, for example because the user made a mistake, the fallback strategy is used instead.
+ * @author Tom van Nimwegen
+ * @see OpeningBook
+ */
+public class BookStrategy implements GuessStrategy
+{
+	/**
+	 * The book to play from
+	 */
+	private final OpeningBook _book;
+	/**
+	 * The strategy used when the history leaves the book
+	 */
+	private final GuessStrategy _fallback;
+
+	/**
+	 * Constructs a new BookStrategy
+	 * @param book the book to play from
+	 * @param fallback the strategy used when the history leaves the book. This should be the strategy the book was generated with
+	 */
+	public BookStrategy(OpeningBook book, GuessStrategy fallback)
+	{
+		this._book = book;
+		this._fallback = fallback;
+	}
+
+	@Override
+	public long nextGuess(Solver solver)
+	{
+		int node = this._book.find(solver);
+
+		if(node >= 0)
+		{
+			int guess = this._book.guessAt(node);
+
+			if(!solver.getPlayed().contains(guess))
+				return solver.getCode(guess);
+		}
+
+		return this._fallback.nextGuess(solver);
+	}
+
+	@Override
+	public void release()
+	{
+		this._fallback.release();
+	}
+}
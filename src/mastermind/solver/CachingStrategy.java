@@ -0,0 +1,59 @@
+package mastermind.solver;
+
+/**
+ * A GuessStrategy that reuses the guesses of another strategy from a TranspositionCache.
+ * <p>When the state of the Solver is in the cache the next guess is a single lookup, otherwise the guess of the
+ * wrapped strategy is added to the cache. An entry with another number of candidates, or with a guess that was already
+ * played, is not used. Only wrap strategies whose guess depends on the state alone, see {@code Strategy.isDeterministic()}.
+ * @author Tom van Nimwegen
+ * @see TranspositionCache
+ */
+public class CachingStrategy implements GuessStrategy
+{
+	/**
+	 * The cache to reuse the guesses from
+	 */
+	private final TranspositionCache _cache;
+	/**
+	 * The name of the wrapped strategy, part of the key of every state
+	 */
+	private final String _name;
+	/**
+	 * The strategy used when the state is not in the cache
+	 */
+	private final GuessStrategy _strategy;
+
+	/**
+	 * Constructs a new CachingStrategy
+	 * @param cache the cache to reuse the guesses from, usually shared with other Solvers
+	 * @param name the name of the wrapped strategy. Every strategy in a cache needs its own name
+	 * @param strategy the strategy used when the state is not in the cache
+	 */
+	public CachingStrategy(TranspositionCache cache, String name, GuessStrategy strategy)
+	{
+		this._cache = cache;
+		this._name = name;
+		this._strategy = strategy;
+	}
+
+	@Override
+	public long nextGuess(Solver solver)
+	{
+		long key = TranspositionCache.key(solver, this._name);
+		long candidates = solver.isEnumerated() ? solver.getCandidates().size() : -1;
+
+		TranspositionCache.Entry entry = this._cache.get(key);
+		if(entry != null && entry.getCandidates() == candidates && !solver.isPlayed(entry.getGuess()))
+			return entry.getGuess();
+
+		long guess = this._strategy.nextGuess(solver);
+		this._cache.put(key, guess, candidates);
+		return guess;
+	}
+
+	@Override
+	public void release()
+	{
+		this._strategy.release();
+	}
+}
@@ -0,0 +1,316 @@
+package mastermind.solver;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+/**
+ * A set of code indices backed by a {@code long[]} bitset.
+ * <p>Adding, removing and checking an index are O(1). The size is kept up to date on every change and
+ * recounted with {@code Long.bitCount} after bulk operations. Resetting or copying a set reuses the same
+ * array, so a set can be used for a whole game without allocating.
+ * @author Tom van Nimwegen
+ * @see FeedbackTable
+ */
+public class CandidateSet
+{
+	/**
+	 * The bits of this set. Bit {@code i % 64} of word {@code i / 64} is set when index {@code i} is in the set
+	 */
+	private final long[] _words;
+	/**
+	 * The number of indices this set can hold
+	 */
+	private final int _capacity;
+	/**
+	 * The number of indices in this set
+	 */
+	private int _size;
+
+	/**
+	 * Constructs a new, empty CandidateSet
+	 * @param capacity the number of indices this set can hold. All indices have to be smaller than this number
+	 */
+	public CandidateSet(int capacity)
+	{
+		this._capacity = capacity;
+		this._words = new long[(capacity + Long.SIZE - 1) / Long.SIZE];
+		this._size = 0;
+	}
+
+	/**
+	 * Adds every index from 0 to {@code capacity()} to this set
+	 */
+	public void fill()
+	{
+		Arrays.fill(this._words, -1L);
+
+		//clear the bits past the capacity in the last word
+		int tail = this._capacity % Long.SIZE;
+		if(tail != 0)
+			this._words[this._words.length - 1] = (1L << tail) - 1;
+
+		this._size = this._capacity;
+	}
+
+	/**
+	 * Removes every index from this set
+	 */
+	public void clear()
+	{
+		Arrays.fill(this._words, 0L);
+		this._size = 0;
+	}
+
+	/**
+	 * Makes this set a copy of another set with the same capacity
+	 * @param other the set to copy
+	 * @throws IllegalArgumentException if the capacities of the sets are not the same
+	 */
+	public void copyFrom(CandidateSet other)
+	{
+		if(other._capacity != this._capacity)
+			throw new IllegalArgumentException();
+
+		System.arraycopy(other._words, 0, this._words, 0, this._words.length);
+		this._size = other._size;
+	}
+
+	/**
+	 * Creates a new set with the same indices as this set
+	 */
+	public CandidateSet copy()
+	{
+		CandidateSet out = new CandidateSet(this._capacity);
+		out.copyFrom(this);
+		return out;
+	}
+
+	/**
+	 * Checks if an index is in this set
+	 * @param index the index to check
+	 */
+	public boolean contains(int index)
+	{
+		return (this._words[index >>> 6] & (1L << index)) != 0;
+	}
+
+	/**
+	 * Adds an index to this set
+	 * @param index the index to add
+	 * @return true if the index was not in the set yet
+	 */
+	public boolean add(int index)
+	{
+		long word = this._words[index >>> 6];
+		long bit = 1L << index;
+
+		if((word & bit) != 0)
+			return false;
+
+		this._words[index >>> 6] = word | bit;
+		this._size++;
+		return true;
+	}
+
+	/**
+	 * Removes an index from this set
+	 * @param index the index to remove
+	 * @return true if the index was in the set
+	 */
+	public boolean remove(int index)
+	{
+		long word = this._words[index >>> 6];
+		long bit = 1L << index;
+
+		if((word & bit) == 0)
+			return false;
+
+		this._words[index >>> 6] = word & ~bit;
+		this._size--;
+		return true;
+	}
+
+	/**
+	 * Gets the number of indices in this set
+	 */
+	public int size()
+	{
+		return this._size;
+	}
+
+	/**
+	 * Checks if this set is empty
+	 */
+	public boolean isEmpty()
+	{
+		return this._size == 0;
+	}
+
+	/**
+	 * Gets the number of indices this set can hold
+	 */
+	public int capacity()
+	{
+		return this._capacity;
+	}
+
+	/**
+	 * Recounts the number of indices in this set from the bits
+	 * @return the number of bits that are set
+	 */
+	private int count()
+	{
+		int count = 0;
+		for (long word : this._words)
+		{
+			count += Long.bitCount(word);
+		}
+
+		return count;
+	}
+
+	/**
+	 * Gets the first index in this set that is greater than or equal to {@code from}
+	 * @param from the index to start searching from
+	 * @return the next index in this set. Returns -1 if there is none
+	 */
+	public int nextIndex(int from)
+	{
+		if(from >= this._capacity)
+			return -1;
+
+		int w = from >>> 6;
+		long word = this._words[w] & (-1L << from);
+
+		while(true)
+		{
+			if(word != 0)
+				return w * Long.SIZE + Long.numberOfTrailingZeros(word);
+
+			if(++w >= this._words.length)
+				return -1;
+
+			word = this._words[w];
+		}
+	}
+
+	/**
+	 * Gets the n-th index in this set, counting from the lowest index
+	 * @param n the position of the index, between 0 and {@code size()}
+	 * @return the n-th index in this set
+	 * @throws IndexOutOfBoundsException if {@code n} is not smaller than {@code size()}
+	 */
+	public int get(int n)
+	{
+		if(n < 0 || n >= this._size)
+			throw new IndexOutOfBoundsException(Integer.toString(n));
+
+		//skip whole words using their bit count
+		int w = 0;
+		int bits = Long.bitCount(this._words[w]);
+		while(n >= bits)
+		{
+			n -= bits;
+			bits = Long.bitCount(this._words[++w]);
+		}
+
+		//clear the lowest bits of the word until the n-th bit is the lowest
+		long word = this._words[w];
+		for (int i = 0; i < n; i++)
+		{
+			word &= word - 1;
+		}
+
+		return w * Long.SIZE + Long.numberOfTrailingZeros(word);
+	}
+
+	/**
+	 * Removes every index from this set that is not in another set
+	 * @param other the set to intersect with
+	 */
+	public void retainAll(CandidateSet other)
+	{
+		for (int i = 0; i < this._words.length; i++)
+		{
+			this._words[i] &= other._words[i];
+		}
+
+		this._size = count();
+	}
+
+	/**
+	 * Removes every index from this set that is in another set
+	 * @param other the set with indices to remove
+	 */
+	public void removeAll(CandidateSet other)
+	{
+		for (int i = 0; i < this._words.length; i++)
+		{
+			this._words[i] &= ~other._words[i];
+		}
+
+		this._size = count();
+	}
+
+	/**
+	 * Keeps every index that is in exactly one of this set and another set
+	 * @param other the set to compare with
+	 */
+	public void xor(CandidateSet other)
+	{
+		for (int i = 0; i < this._words.length; i++)
+		{
+			this._words[i] ^= other._words[i];
+		}
+
+		this._size = count();
+	}
+
+	/**
+	 * Counts the indices that are in exactly one of this set and another set, without changing either set
+	 * @param other the set to compare with
+	 */
+	public int differenceSize(CandidateSet other)
+	{
+		int count = 0;
+		for (int i = 0; i < this._words.length; i++)
+		{
+			count += Long.bitCount(this._words[i] ^ other._words[i]);
+		}
+
+		return count;
+	}
+
+	/**
+	 * Computes a 64-bit hash of the indices in this set. Sets with the same indices and capacity get the same hash
+	 * @see TranspositionCache#key(Solver, String)
+	 */
+	public long fingerprint()
+	{
+		long h = TranspositionCache.mix(this._capacity);
+		for (int w = 0; w < this._words.length; w++)
+		{
+			if(this._words[w] != 0)
+				h = TranspositionCache.mix(TranspositionCache.mix(h ^ w) ^ this._words[w]);
+		}
+
+		return h;
+	}
+
+	/**
+	 * Runs an action for every index in this set, from the lowest to the highest index
+	 * @param action the action to run
+	 */
+	public void forEach(IntConsumer action)
+	{
+		for (int w = 0; w < this._words.length; w++)
+		{
+			long word = this._words[w];
+			while(word != 0)
+			{
+				action.accept(w * Long.SIZE + Long.numberOfTrailingZeros(word));
+				word &= word - 1;
+			}
+		}
+	}
+}
@@ -0,0 +1,98 @@
+package mastermind.solver;
+
+import java.util.Random;
+
+/**
+ * A SamplingStrategy that finds its sample with Constraints instead of by drawing random codes, so it keeps working
+ * when only a tiny part of a huge code space is consistent.
+ * <p>When there are at most {@code sampleSize} consistent codes, which {@code Constraints.count(long)} finds out
+ * quickly, the sample holds all of them and guesses are scored against the exact candidates. Otherwise the sample is
+ * filled by randomized searches, which spread it over the consistent codes, though not uniformly. When those keep
+ * getting stuck, the rest of the sample is filled with the first consistent codes in search order.
+ * <p>All searches of a move share a budget of {@code NODE_BUDGET} assignments, so a move takes bounded time even when
+ * propagation is weak. When the budget runs out before a single consistent code is found, the sample is left to the
+ * random walk of SamplingStrategy.
+ * @author Tom van Nimwegen
+ * @see Constraints
+ */
+public class ConstraintStrategy extends SamplingStrategy
+{
+	/**
+	 * The number of assignments the searches of a move may try together
+	 * @see Constraints#setBudget(long)
+	 */
+	public static long NODE_BUDGET = 2_000_000L;
+
+	/**
+	 * Constructs a new ConstraintStrategy with {@code SAMPLE_SIZE} codes per sample, using the Random of the Solver
+	 */
+	public ConstraintStrategy()
+	{
+		super();
+	}
+
+	/**
+	 * Constructs a new ConstraintStrategy using the Random of the Solver
+	 * @param sampleSize the number of consistent codes in a sample
+	 */
+	public ConstraintStrategy(int sampleSize)
+	{
+		super(sampleSize);
+	}
+
+	/**
+	 * Constructs a new ConstraintStrategy that picks the same guess every time it sees the same history
+	 * @param sampleSize the number of consistent codes in a sample
+	 * @param seed the seed of every move
+	 */
+	public ConstraintStrategy(int sampleSize, long seed)
+	{
+		super(sampleSize, seed);
+	}
+
+	@Override
+	protected int sample(Solver solver, Random random, long[] sample)
+	{
+		Constraints constraints = Constraints.of(solver);
+		constraints.setBudget(NODE_BUDGET);
+
+		int size = this.getSampleSize();
+		long count = constraints.count(size + 1);
+
+		if(!constraints.isCut())
+		{
+			//the feedback was inconsistent, let the random walk get as close as possible
+			if(count == 0)
+				return super.sample(solver, random, sample);
+
+			if(count <= size)
+				return constraints.findAll(sample);
+		}
+
+		int n = 0;
+		for (; n < size; n++)
+		{
+			long code = constraints.findOne(random);
+
+			if(code < 0)
+				break;
+
+			sample[n] = code;
+		}
+
+		//the randomized searches keep getting stuck, fill up the rest with the first codes in search order
+		if(n < size && !Thread.currentThread().isInterrupted())
+		{
+			long[] rest = new long[size - n];
+			int found = constraints.findAll(rest);
+			System.arraycopy(rest, 0, sample, n, found);
+			n += found;
+		}
+
+		//out of budget without finding anything, fall back to the random walk
+		if(n == 0)
+			return super.sample(solver, random, sample);
+
+		return n;
+	}
+}
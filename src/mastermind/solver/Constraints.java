@@ -0,0 +1,626 @@
+package mastermind.solver;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import mastermind.PackedCode;
+
+/**
+ * The constraints a game history puts on the secret code, used to find consistent codes without enumerating the code
+ * space.
+ * <p>Every position has a domain: the colors it can still have. Every color has bounds on how many times it can be in
+ * the code. Both are derived from the feedback of every guess and tightened until nothing changes: a guess without
+ * black pins rules out its color on every position, a guess with {@code b+w} pins of the right color bounds the count
+ * of every color it uses by what the other colors can make up, and a color that can not be in the code is removed
+ * from every domain.
+ * <p>Consistent codes are found by a backtracking search that assigns the positions with the smallest domains first.
+ * After every assignment the search checks for every guess if the black pins and the pins of the right color can
+ * still end up at the feedback, also counting that a black pin is often a pin of the right color as well, and if the
+ * remaining positions can still fill up the minimum count of every color.
+ * When a code is complete these checks are exact, so every code the search finds is consistent.
+ * <p>A Constraints keeps the state of its search, so it is not thread safe. When the current thread is interrupted a
+ * query stops and returns what it found so far.
+ * @author Tom van Nimwegen
+ * @see ConstraintStrategy
+ */
+public class Constraints
+{
+	/**
+	 * The number of assignments a randomized search tries per position in a code before it restarts
+	 */
+	public static int RESTART_NODES = 256;
+	/**
+	 * The number of times a randomized search restarts before it gives up
+	 */
+	public static int MAX_RESTARTS = 6;
+
+	/**
+	 * The number of positions in a code
+	 */
+	private final int _length;
+	/**
+	 * The number of different Pins in a code
+	 */
+	private final int _colors;
+	/**
+	 * The number of guesses in the history
+	 */
+	private final int _turns;
+	/**
+	 * The packed codes of the guesses
+	 */
+	private final long[] _guesses;
+	/**
+	 * The number of black pins every guess got
+	 */
+	private final int[] _blacks;
+	/**
+	 * The number of black and white pins every guess got
+	 */
+	private final int[] _totals;
+	/**
+	 * The number of times every color is in every guess, by turn and color
+	 */
+	private final int[][] _guessCounts;
+	/**
+	 * The distinct colors of every guess
+	 */
+	private final int[][] _guessColors;
+	/**
+	 * The colors every position can have, one bit per color
+	 */
+	private final long[] _domains;
+	/**
+	 * The minimum number of times every color is in the code
+	 */
+	private final int[] _min;
+	/**
+	 * The maximum number of times every color is in the code
+	 */
+	private final int[] _max;
+	/**
+	 * Tells if propagation found that no code is consistent
+	 */
+	private boolean _empty;
+
+	/**
+	 * The positions in the order they are assigned
+	 */
+	private final int[] _order;
+	/**
+	 * For every guess and every step of the search, the number of positions from that step on that can still get a
+	 * black pin
+	 */
+	private final int[][] _possibleBlacks;
+	/**
+	 * The number of times every color is in the partial code
+	 */
+	private final int[] _counts;
+	/**
+	 * The black pins every guess gets from the partial code
+	 */
+	private final int[] _blackCounts;
+	/**
+	 * The pins of the right color every guess gets from the partial code
+	 */
+	private final int[] _totalCounts;
+	/**
+	 * The number of positions left that can get a black pin of every color, used by {@code feasible(int)}
+	 */
+	private final int[] _possible;
+	/**
+	 * The number of pins the partial code still needs to reach the minimum count of every color
+	 */
+	private int _deficit;
+	/**
+	 * The partial code
+	 */
+	private long _code;
+
+	/**
+	 * The Random used to pick the order of the colors, or NULL to try them in ascending order
+	 */
+	private Random _random;
+	/**
+	 * The codes found by the current query, or NULL if they are only counted
+	 */
+	private long[] _found;
+	/**
+	 * The number of codes found by the current query
+	 */
+	private long _foundCount;
+	/**
+	 * The number of codes after which the current query stops
+	 */
+	private long _limit;
+	/**
+	 * The number of assignments the current query tried
+	 */
+	private long _nodes;
+	/**
+	 * The number of assignments after which the current query gives up
+	 */
+	private long _nodeLimit;
+	/**
+	 * The number of assignments all following queries may try together
+	 */
+	private long _budget = Long.MAX_VALUE;
+	/**
+	 * Tells if the last query gave up before it was done
+	 */
+	private boolean _cut;
+
+	/**
+	 * Constructs the Constraints of a game history
+	 * @param length the number of positions in a code
+	 * @param colors the number of different Pins
+	 * @param guesses the packed codes of the guesses
+	 * @param feedbacks the packed feedbacks of the guesses
+	 * @param turns the number of guesses in {@code guesses}
+	 */
+	public Constraints(int length, int colors, long[] guesses, int[] feedbacks, int turns)
+	{
+		this._length = length;
+		this._colors = colors;
+		this._turns = turns;
+		this._guesses = Arrays.copyOf(guesses, turns);
+		this._blacks = new int[turns];
+		this._totals = new int[turns];
+		this._guessCounts = new int[turns][colors];
+		this._guessColors = new int[turns][];
+
+		for (int t = 0; t < turns; t++)
+		{
+			this._blacks[t] = PackedCode.blacks(feedbacks[t], length);
+			this._totals[t] = this._blacks[t] + PackedCode.whites(feedbacks[t], length);
+
+			int distinct = 0;
+			for (int i = 0; i < length; i++)
+			{
+				if(this._guessCounts[t][PackedCode.pinAt(guesses[t], i)]++ == 0)
+					distinct++;
+			}
+
+			this._guessColors[t] = new int[distinct];
+			for (int c = 0, n = 0; c < colors; c++)
+			{
+				if(this._guessCounts[t][c] > 0)
+					this._guessColors[t][n++] = c;
+			}
+		}
+
+		this._domains = new long[length];
+		this._min = new int[colors];
+		this._max = new int[colors];
+		this.propagate();
+
+		//assign the most constrained positions first
+		Integer[] order = new Integer[length];
+		for (int i = 0; i < length; i++)
+		{
+			order[i] = i;
+		}
+		Arrays.sort(order, (a, b) -> Integer.compare(Long.bitCount(this._domains[a]), Long.bitCount(this._domains[b])));
+
+		this._order = new int[length];
+		this._possibleBlacks = new int[turns][length + 1];
+		for (int k = length - 1; k >= 0; k--)
+		{
+			this._order[k] = order[k];
+
+			for (int t = 0; t < turns; t++)
+			{
+				boolean possible = (this._domains[order[k]] & bit(PackedCode.pinAt(guesses[t], order[k]))) != 0;
+				this._possibleBlacks[t][k] = this._possibleBlacks[t][k + 1] + (possible ? 1 : 0);
+			}
+		}
+
+		this._counts = new int[colors];
+		this._possible = new int[colors];
+		this._blackCounts = new int[turns];
+		this._totalCounts = new int[turns];
+	}
+
+	/**
+	 * Gets the Constraints of the history of a Solver
+	 * @param solver the solver
+	 */
+	public static Constraints of(Solver solver)
+	{
+		int turns = solver.getTurn();
+		long[] guesses = new long[turns];
+		int[] feedbacks = new int[turns];
+		for (int t = 0; t < turns; t++)
+		{
+			guesses[t] = solver.getGuess(t);
+			feedbacks[t] = solver.getFeedback(t);
+		}
+
+		return new Constraints(solver.getLength(), solver.getColors(), guesses, feedbacks, turns);
+	}
+
+	/**
+	 * Gets the colors a position can still have
+	 * @param position the position in the code
+	 * @return one bit per color, the lowest bit for the first color
+	 */
+	public long getDomain(int position)
+	{
+		return this._domains[position];
+	}
+
+	/**
+	 * Gets the minimum number of times a color is in the code
+	 * @param color the ordinal of the color
+	 */
+	public int getMin(int color)
+	{
+		return this._min[color];
+	}
+
+	/**
+	 * Gets the maximum number of times a color is in the code
+	 * @param color the ordinal of the color
+	 */
+	public int getMax(int color)
+	{
+		return this._max[color];
+	}
+
+	/**
+	 * Limits the work of all following queries together. A query that runs out gives up and returns what it found so far.
+	 * @param nodes the number of assignments the following queries may try together, {@code Long.MAX_VALUE} for no limit
+	 */
+	public void setBudget(long nodes)
+	{
+		this._budget = nodes;
+	}
+
+	/**
+	 * Checks if the last query gave up before it was done, because it ran out of budget, a randomized search ran out of
+	 * restarts or the current thread was interrupted. If it did not, its answer is exact.
+	 */
+	public boolean isCut()
+	{
+		return this._cut;
+	}
+
+	/**
+	 * Finds a consistent code
+	 * @param random the Random used to pick the order in which colors are tried, or NULL to find the lowest code in
+	 * search order
+	 * @return the packed code, or -1 if there is no consistent code, the search was interrupted or a randomized search
+	 * gave up after {@code MAX_RESTARTS} restarts
+	 */
+	public long findOne(Random random)
+	{
+		long[] found = new long[1];
+
+		if(random == null)
+			return this.search(null, found, 1, Long.MAX_VALUE) == 1 ? found[0] : -1;
+
+		//a random order of colors can get stuck in a part without consistent codes, so restart with another order
+		//when a search takes too long, and give every restart twice as long
+		long nodes = (long)RESTART_NODES * this._length;
+		for (int restart = 0; restart <= MAX_RESTARTS; restart++, nodes *= 2)
+		{
+			if(this.search(random, found, 1, nodes) == 1)
+				return found[0];
+
+			//there is no consistent code, the budget ran out or the thread was interrupted
+			if(!this._cut || this._nodes <= nodes)
+				return -1;
+		}
+
+		this._cut = true;
+		return -1;
+	}
+
+	/**
+	 * Finds consistent codes in search order
+	 * @param found the array to put the codes in. The search stops when it is full
+	 * @return the number of codes found
+	 */
+	public int findAll(long[] found)
+	{
+		return (int)this.search(null, found, found.length, Long.MAX_VALUE);
+	}
+
+	/**
+	 * Counts the consistent codes, up to a limit
+	 * @param limit the number of codes after which counting stops
+	 * @return the number of consistent codes, or {@code limit} if there are at least that many
+	 */
+	public long count(long limit)
+	{
+		return this.search(null, null, limit, Long.MAX_VALUE);
+	}
+
+	/**
+	 * Runs a query
+	 */
+	private long search(Random random, long[] found, long limit, long nodeLimit)
+	{
+		this._cut = false;
+
+		if(this._empty || limit <= 0)
+			return 0;
+
+		this._random = random;
+		this._found = found;
+		this._foundCount = 0;
+		this._limit = limit;
+		this._nodes = 0;
+		this._nodeLimit = Math.min(nodeLimit, this._budget);
+
+		Arrays.fill(this._counts, 0);
+		Arrays.fill(this._blackCounts, 0);
+		Arrays.fill(this._totalCounts, 0);
+		this._deficit = 0;
+		for (int c = 0; c < this._colors; c++)
+		{
+			this._deficit += this._min[c];
+		}
+		this._code = 0;
+
+		this._cut = !this.search(0) && this._foundCount < limit;
+
+		if(this._budget != Long.MAX_VALUE)
+			this._budget -= Math.min(this._nodes, this._budget);
+
+		this._random = null;
+		this._found = null;
+		return this._foundCount;
+	}
+
+	/**
+	 * Assigns every color a position can have in turn, and searches on when the constraints can still be met
+	 * @param step the number of positions that are assigned
+	 * @return false if the query should stop
+	 */
+	private boolean search(int step)
+	{
+		if(step == this._length)
+		{
+			if(this._found != null)
+				this._found[(int)this._foundCount] = this._code;
+
+			return ++this._foundCount < this._limit;
+		}
+
+		if(Thread.currentThread().isInterrupted())
+			return false;
+
+		int position = this._order[step];
+		long domain = this._domains[position];
+		int start = this._random != null ? this._random.nextInt(this._colors) : 0;
+
+		for (int n = 0; n < this._colors; n++)
+		{
+			int color = start + n < this._colors ? start + n : start + n - this._colors;
+
+			if((domain & bit(color)) == 0 || this._counts[color] >= this._max[color])
+				continue;
+
+			if(++this._nodes > this._nodeLimit)
+				return false;
+
+			this.assign(position, color, 1);
+
+			boolean go = !this.feasible(step + 1) || this.search(step + 1);
+
+			this.assign(position, color, -1);
+
+			if(!go)
+				return false;
+		}
+
+		return true;
+	}
+
+	/**
+	 * Adds a color to the partial code, or removes it again
+	 * @param delta 1 to add the color, -1 to remove it
+	 */
+	private void assign(int position, int color, int delta)
+	{
+		if(delta < 0)
+			this._counts[color]--;
+
+		for (int t = 0; t < this._turns; t++)
+		{
+			if(PackedCode.pinAt(this._guesses[t], position) == color)
+				this._blackCounts[t] += delta;
+
+			//a color adds a pin of the right color as long as the guess has more of it
+			if(this._counts[color] < this._guessCounts[t][color])
+				this._totalCounts[t] += delta;
+		}
+
+		if(this._counts[color] < this._min[color])
+			this._deficit -= delta;
+
+		if(delta > 0)
+			this._counts[color]++;
+
+		this._code = PackedCode.setPin(this._code, position, delta > 0 ? color : 0);
+	}
+
+	/**
+	 * Checks if the partial code can still be completed into a consistent code
+	 * @param step the number of positions that are assigned
+	 */
+	private boolean feasible(int step)
+	{
+		int left = this._length - step;
+
+		if(this._deficit > left)
+			return false;
+
+		for (int t = 0; t < this._turns; t++)
+		{
+			int blacks = this._blackCounts[t];
+			if(blacks > this._blacks[t] || blacks + this._possibleBlacks[t][step] < this._blacks[t])
+				return false;
+
+			int total = this._totalCounts[t];
+			if(total > this._totals[t])
+				return false;
+
+			//the pins of the right color the rest of the code can still add
+			int gain = 0;
+			for (int c : this._guessColors[t])
+			{
+				gain += Math.max(0, Math.min(this._guessCounts[t][c], this._max[c]) - Math.min(this._guessCounts[t][c], this._counts[c]));
+			}
+
+			if(total + Math.min(gain, left) < this._totals[t])
+				return false;
+
+			//a black pin of a color the partial code has fewer of than the guess is also a pin of the right color,
+			//so the black pins still needed can not all be on such colors when there is no room for them
+			int needed = this._blacks[t] - blacks;
+			if(needed > 0)
+			{
+				for (int c : this._guessColors[t])
+				{
+					this._possible[c] = 0;
+				}
+
+				for (int k = step; k < this._length; k++)
+				{
+					int color = PackedCode.pinAt(this._guesses[t], this._order[k]);
+					if((this._domains[this._order[k]] & bit(color)) != 0)
+						this._possible[color]++;
+				}
+
+				int free = 0;
+				for (int c : this._guessColors[t])
+				{
+					int possible = Math.min(this._possible[c], this._max[c] - this._counts[c]);
+					free += Math.max(0, possible - Math.max(0, this._guessCounts[t][c] - this._counts[c]));
+				}
+
+				if(needed - free > this._totals[t] - total)
+					return false;
+			}
+		}
+
+		return true;
+	}
+
+	/**
+	 * Derives the domains and color bounds from the history, until nothing changes
+	 */
+	private void propagate()
+	{
+		long all = this._colors == Long.SIZE ? -1L : (1L << this._colors) - 1;
+		Arrays.fill(this._domains, all);
+		Arrays.fill(this._max, this._length);
+
+		for (int t = 0; t < this._turns; t++)
+		{
+			for (int i = 0; i < this._length; i++)
+			{
+				long pin = bit(PackedCode.pinAt(this._guesses[t], i));
+
+				//no black pins, so no pin of the guess is in the right place
+				if(this._blacks[t] == 0)
+					this._domains[i] &= ~pin;
+
+				//only black pins, so every pin of the guess is in the right place
+				if(this._blacks[t] == this._length)
+					this._domains[i] &= pin;
+			}
+		}
+
+		boolean changed = true;
+		while(changed && !this._empty)
+		{
+			changed = false;
+
+			for (int t = 0; t < this._turns; t++)
+			{
+				int[] counts = this._guessCounts[t];
+
+				int reachMax = 0;
+				int reachMin = 0;
+				for (int c : this._guessColors[t])
+				{
+					reachMax += Math.min(counts[c], this._max[c]);
+					reachMin += Math.min(counts[c], this._min[c]);
+				}
+
+				for (int c : this._guessColors[t])
+				{
+					//the other colors of the guess can not make up the pins of the right color on their own
+					int lower = this._totals[t] - (reachMax - Math.min(counts[c], this._max[c]));
+					if(lower > counts[c])
+						this._empty = true;
+					else if(lower > this._min[c])
+					{
+						this._min[c] = lower;
+						changed = true;
+					}
+
+					//the other colors of the guess already take up some of the pins of the right color
+					int upper = this._totals[t] - (reachMin - Math.min(counts[c], this._min[c]));
+					if(counts[c] > upper && upper < this._max[c])
+					{
+						this._max[c] = upper;
+						changed = true;
+					}
+				}
+			}
+
+			int minSum = 0;
+			for (int c = 0; c < this._colors; c++)
+			{
+				minSum += this._min[c];
+			}
+
+			for (int c = 0; c < this._colors; c++)
+			{
+				//a color can not be in more positions than are left over by the other colors, or than can have it
+				int positions = 0;
+				for (int i = 0; i < this._length; i++)
+				{
+					if((this._domains[i] & bit(c)) != 0)
+						positions++;
+				}
+
+				int upper = Math.min(this._length - (minSum - this._min[c]), positions);
+				if(upper < this._max[c])
+				{
+					this._max[c] = upper;
+					changed = true;
+				}
+
+				if(this._max[c] == 0)
+				{
+					for (int i = 0; i < this._length; i++)
+					{
+						this._domains[i] &= ~bit(c);
+					}
+				}
+
+				if(this._min[c] > this._max[c])
+					this._empty = true;
+			}
+
+			for (long domain : this._domains)
+			{
+				if(domain == 0)
+					this._empty = true;
+			}
+		}
+	}
+
+	/**
+	 * Gets the bit of a color in a domain
+	 */
+	private static long bit(int color)
+	{
+		return 1L << color;
+	}
+}
@@ -0,0 +1,90 @@
+package mastermind.solver;
+
+import java.util.Arrays;
+
+/**
+ * A GuessStrategy that picks the guess with the most information, the highest entropy of its partition.
+ * <p>When the candidates are split up in buckets of size {@code n}, the entropy is
+ * {@code log(total) - sum(n * log(n)) / total}. The total is the same for every guess, so the guess with the smallest
+ * {@code sum(n * log(n))} wins. This sum is computed in fixed point from a precomputed table of {@code n * log2(n)},
+ * so evaluating a guess is a table lookup per candidate. The sum only grows while the histogram is filled, so
+ * evaluating a guess stops as soon as it is larger than the sum of the best guess so far.
+ * @author Tom van Nimwegen
+ * @see PartitionStrategy
+ */
+public class EntropyStrategy extends PartitionStrategy
+{
+	/**
+	 * The number of fractional bits of the fixed point values
+	 */
+	private static final int FRACTION_BITS = 16;
+
+	/**
+	 * {@code n * log2(n)} in fixed point for every {@code n}, grown when a larger candidate set is seen
+	 */
+	private static volatile long[] _nlogn = new long[0];
+
+	@Override
+	protected long evaluate(FeedbackTable table, int guess, CandidateSet candidates, int[] histogram, long limit)
+	{
+		Arrays.fill(histogram, 0);
+		long[] nlogn = nlogn(candidates.size());
+
+		long sum = 0;
+		for (int index = candidates.nextIndex(0); index >= 0; index = candidates.nextIndex(index + 1))
+		{
+			int count = histogram[table.feedback(guess, index)]++;
+			sum += nlogn[count + 1] - nlogn[count];
+
+			//this guess can never beat the best guess so far
+			if(sum > limit)
+				break;
+		}
+
+		return sum;
+	}
+
+	@Override
+	protected long score(int[] histogram, int total)
+	{
+		long[] nlogn = nlogn(total);
+
+		long sum = 0;
+		for (int count : histogram)
+		{
+			sum += nlogn[count];
+		}
+
+		return sum;
+	}
+
+	/**
+	 * Gets the table of {@code n * log2(n)} in fixed point
+	 * @param size the largest {@code n} that will be looked up
+	 */
+	private static long[] nlogn(int size)
+	{
+		long[] table = _nlogn;
+
+		if(table.length > size)
+			return table;
+
+		synchronized (EntropyStrategy.class)
+		{
+			table = _nlogn;
+
+			if(table.length <= size)
+			{
+				table = new long[Math.max(size + 1, table.length * 2)];
+				for (int n = 2; n < table.length; n++)
+				{
+					table[n] = Math.round(n * Math.log(n) / Math.log(2) * (1 << FRACTION_BITS));
+				}
+
+				_nlogn = table;
+			}
+
+			return table;
+		}
+	}
+}
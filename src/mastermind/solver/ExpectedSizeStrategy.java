@@ -0,0 +1,46 @@
+package mastermind.solver;
+
+import java.util.Arrays;
+
+/**
+ * A GuessStrategy that minimizes the expected number of candidates left after a guess.
+ * <p>When the candidates are split up in buckets of size {@code n}, the expected number of candidates left is
+ * {@code sum(n * n) / total}. The total is the same for every guess, so only the integer sum of squares is compared.
+ * The sum only grows while the histogram is filled, so evaluating a guess stops as soon as it is larger than the sum
+ * of the best guess so far.
+ * @author Tom van Nimwegen
+ * @see PartitionStrategy
+ */
+public class ExpectedSizeStrategy extends PartitionStrategy
+{
+	@Override
+	protected long evaluate(FeedbackTable table, int guess, CandidateSet candidates, int[] histogram, long limit)
+	{
+		Arrays.fill(histogram, 0);
+
+		long sum = 0;
+		for (int index = candidates.nextIndex(0); index >= 0; index = candidates.nextIndex(index + 1))
+		{
+			//(n + 1)^2 - n^2 = 2n + 1
+			sum += 2 * histogram[table.feedback(guess, index)]++ + 1;
+
+			//this guess can never beat the best guess so far
+			if(sum > limit)
+				break;
+		}
+
+		return sum;
+	}
+
+	@Override
+	protected long score(int[] histogram, int total)
+	{
+		long sum = 0;
+		for (int count : histogram)
+		{
+			sum += (long)count * count;
+		}
+
+		return sum;
+	}
+}
@@ -0,0 +1,194 @@
+package mastermind.solver;
+
+import java.nio.ByteBuffer;
+import java.util.stream.IntStream;
+
+import mastermind.CodeSpace;
+import mastermind.PackedCode;
+
+/**
+ * A table containing the packed feedback of every (guess, secret) pair in a CodeSpace, indexed by code ordinal.
+ * <p>The table is stored as a flat {@code byte} array of {@code size * size} entries and is built in parallel.
+ * When the table would be larger than {@code MEMORY_LIMIT} it is not built at all and every lookup falls back to
+ * {@code PackedCode.score(long, long, int)}, so callers never have to care which of the two they got.
+ * The packed codes are only kept in memory while they take up less than {@code MEMORY_LIMIT} as well,
+ * otherwise they are decoded from the CodeSpace on every lookup.
+ * <p>Use {@code cached(CodeSpace, SolverCache, String)} to load the table from a SolverCache instead of building it
+ * on every start.
+ * @author Tom van Nimwegen
+ * @see PackedCode
+ */
+public class FeedbackTable
+{
+	/**
+	 * The maximum number of bytes a precomputed table is allowed to use
+	 */
+	public static long MEMORY_LIMIT = 64L * 1024 * 1024;
+
+	/**
+	 * The kind of this table in a SolverCache
+	 */
+	private static final String CACHE_KIND = "feedback";
+	/**
+	 * The strategy of this table in a SolverCache. Feedback does not depend on the strategy
+	 */
+	private static final String CACHE_STRATEGY = "all";
+
+	/**
+	 * The space of codes this table was built for
+	 */
+	private final CodeSpace _space;
+	/**
+	 * The packed codes of the space, indexed by ordinal. NULL if they take up too much memory
+	 */
+	private final long[] _codes;
+	/**
+	 * The number of codes in the space
+	 */
+	private final int _size;
+	/**
+	 * The number of positions in a code
+	 */
+	private final int _length;
+	/**
+	 * The precomputed feedbacks, either on the heap or mapped from a SolverCache. NULL if the table was too large to precompute
+	 */
+	private final ByteBuffer _table;
+
+	/**
+	 * Constructs a new FeedbackTable for a CodeSpace. The table is precomputed unless it would exceed {@code MEMORY_LIMIT}.
+	 * @param space the space of codes
+	 * @throws ArithmeticException if the space has more codes than fit in an {@code int}
+	 */
+	public FeedbackTable(CodeSpace space)
+	{
+		this(space, null, null);
+	}
+
+	/**
+	 * Constructs a new FeedbackTable for a CodeSpace
+	 * @param space the space of codes
+	 * @param cache the cache to load the table from and store it in. NULL to always build the table
+	 * @param palette the palette of Pins used in the cache key
+	 */
+	private FeedbackTable(CodeSpace space, SolverCache cache, String palette)
+	{
+		this._space = space;
+		this._size = Math.toIntExact(space.size());
+		this._length = space.getLength();
+
+		boolean precompute = canPrecompute(space);
+		this._codes = precompute || (long)this._size * Long.BYTES <= MEMORY_LIMIT ? space.codes().toArray() : null;
+
+		if(!precompute)
+			this._table = null;
+		else if(cache == null)
+			this._table = ByteBuffer.wrap(build(this._codes, this._length));
+		else
+			this._table = cache.getOrBuild(CACHE_KIND, this._length, palette, CACHE_STRATEGY, () -> ByteBuffer.wrap(build(this._codes, this._length)));
+	}
+
+	/**
+	 * Gets a FeedbackTable for a CodeSpace from a SolverCache. The table is built and stored in the cache when it is not
+	 * in there yet. Tables that are too large to precompute are never cached.
+	 * @param space the space of codes
+	 * @param cache the cache to use
+	 * @param palette the palette of Pins, see {@code SolverCache.palette()}
+	 * @return a new FeedbackTable
+	 */
+	public static FeedbackTable cached(CodeSpace space, SolverCache cache, String palette)
+	{
+		return new FeedbackTable(space, cache, palette);
+	}
+
+	/**
+	 * Checks if the table of a CodeSpace fits in {@code MEMORY_LIMIT}
+	 */
+	private static boolean canPrecompute(CodeSpace space)
+	{
+		long bytes = space.size() * space.size();
+		return space.size() <= Integer.MAX_VALUE && bytes <= MEMORY_LIMIT && bytes <= Integer.MAX_VALUE;
+	}
+
+	/**
+	 * Builds the flat table in parallel. Feedback is symmetric, so every pair is only scored once.
+	 */
+	private static byte[] build(long[] codes, int length)
+	{
+		int n = codes.length;
+		byte[] table = new byte[n * n];
+
+		IntStream.range(0, n).parallel().forEach(i ->
+		{
+			long guess = codes[i];
+			for (int j = i; j < n; j++)
+			{
+				byte feedback = (byte)PackedCode.score(guess, codes[j], length);
+				table[i * n + j] = feedback;
+				table[j * n + i] = feedback;
+			}
+		});
+
+		return table;
+	}
+
+	/**
+	 * Gets the packed feedback of a guess against a secret
+	 * @param guess the ordinal of the guess
+	 * @param secret the ordinal of the secret
+	 * @return the packed feedback
+	 * @see PackedCode#score(long, long, int)
+	 */
+	public int feedback(int guess, int secret)
+	{
+		if(this._table != null)
+			return this._table.get(guess * this._size + secret);
+
+		return PackedCode.score(this.getCode(guess), this.getCode(secret), this._length);
+	}
+
+	/**
+	 * Checks if the feedbacks in this table are precomputed
+	 * @return true if lookups are served from memory, false if they are scored live
+	 */
+	public boolean isPrecomputed()
+	{
+		return this._table != null;
+	}
+
+	/**
+	 * Gets the number of codes in this table
+	 */
+	public int size()
+	{
+		return this._size;
+	}
+
+	/**
+	 * Gets the number of positions in a code of this table
+	 */
+	public int getLength()
+	{
+		return this._length;
+	}
+
+	/**
+	 * Gets the packed code at an index
+	 * @param index the ordinal of the code
+	 */
+	public long getCode(int index)
+	{
+		if(this._codes != null)
+			return this._codes[index];
+
+		return this._space.packed(index);
+	}
+
+	/**
+	 * Gets the space of codes of this table
+	 */
+	public CodeSpace getSpace()
+	{
+		return this._space;
+	}
+}
@@ -0,0 +1,290 @@
+package mastermind.solver;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.stream.IntStream;
+
+import mastermind.PackedCode;
+
+/**
+ * A SamplingStrategy that finds its sample by evolving a population of codes toward consistency with the history.
+ * <p>The fitness of a code is its distance to consistency, see {@code Solver.distance(long)}, so 0 is best. Every
+ * generation the codes with a fitness of 0 are added to the eligible set, and a new population is bred: the best code
+ * survives as is, and every other code is the child of two parents picked by tournament. A child takes its pins from
+ * one parent up to a random crossover point and from the other after it, and is then mutated now and then by changing
+ * the color of a position, swapping two positions or reversing a part of the code. Evolution stops after
+ * {@code generations} generations or when the eligible set holds {@code sampleSize} codes, and the guess is picked from
+ * the eligible set like in SamplingStrategy.
+ * <p>The fitness of a generation is computed in parallel on {@code PartitionStrategy.POOL} when there are at least
+ * {@code PARALLEL_THRESHOLD} scores to compute, unless the move itself runs on a pool thread, like the games of a
+ * Simulation. Breeding uses the Random of the move on the calling thread only, so a
+ * seeded GeneticStrategy picks the same guesses no matter how many threads there are.
+ * <p>If no generation has a consistent code, the sample is left to the rejection sampling and random walk of
+ * SamplingStrategy.
+ * @author Tom van Nimwegen
+ * @see SamplingStrategy
+ */
+public class GeneticStrategy extends SamplingStrategy
+{
+	/**
+	 * The default number of codes in a population
+	 */
+	public static int POPULATION = 150;
+	/**
+	 * The default maximum number of generations per move
+	 */
+	public static int GENERATIONS = 100;
+	/**
+	 * The default number of codes in the eligible set
+	 */
+	public static int ELIGIBLE = 60;
+	/**
+	 * The minimum number of scores in a generation before its fitness is computed in parallel
+	 */
+	public static int PARALLEL_THRESHOLD = 600;
+
+	/**
+	 * The chance a child gets a position with a new color
+	 */
+	private static final double MUTATION_RATE = 0.03;
+	/**
+	 * The chance two positions of a child are swapped
+	 */
+	private static final double PERMUTATION_RATE = 0.03;
+	/**
+	 * The chance a part of a child is reversed
+	 */
+	private static final double INVERSION_RATE = 0.02;
+	/**
+	 * The number of codes competing in a tournament
+	 */
+	private static final int TOURNAMENT_SIZE = 3;
+
+	/**
+	 * The number of codes in a population
+	 */
+	private final int _populationSize;
+	/**
+	 * The maximum number of generations per move
+	 */
+	private final int _generations;
+
+	/**
+	 * The current population
+	 */
+	private long[] _population = new long[0];
+	/**
+	 * The population being bred
+	 */
+	private long[] _offspring = new long[0];
+	/**
+	 * The fitness of every code in the current population
+	 */
+	private int[] _fitness = new int[0];
+
+	/**
+	 * Constructs a new GeneticStrategy with the default population, generations and eligible set, using the Random of
+	 * the Solver
+	 */
+	public GeneticStrategy()
+	{
+		this(POPULATION, GENERATIONS, ELIGIBLE);
+	}
+
+	/**
+	 * Constructs a new GeneticStrategy using the Random of the Solver
+	 * @param populationSize the number of codes in a population
+	 * @param generations the maximum number of generations per move
+	 * @param eligible the number of codes in the eligible set
+	 */
+	public GeneticStrategy(int populationSize, int generations, int eligible)
+	{
+		super(eligible);
+		this._populationSize = checkPositive(populationSize);
+		this._generations = checkPositive(generations);
+	}
+
+	/**
+	 * Constructs a new GeneticStrategy that picks the same guess every time it sees the same history
+	 * @param populationSize the number of codes in a population
+	 * @param generations the maximum number of generations per move
+	 * @param eligible the number of codes in the eligible set
+	 * @param seed the seed of every move
+	 */
+	public GeneticStrategy(int populationSize, int generations, int eligible, long seed)
+	{
+		super(eligible, seed);
+		this._populationSize = checkPositive(populationSize);
+		this._generations = checkPositive(generations);
+	}
+
+	/**
+	 * Gets the number of codes in a population
+	 */
+	public int getPopulationSize()
+	{
+		return this._populationSize;
+	}
+
+	/**
+	 * Gets the maximum number of generations per move
+	 */
+	public int getGenerations()
+	{
+		return this._generations;
+	}
+
+	@Override
+	protected int sample(Solver solver, Random random, long[] sample)
+	{
+		int size = this.getSampleSize();
+		int length = solver.getLength();
+		int colors = solver.getColors();
+
+		if(this._population.length != this._populationSize)
+		{
+			this._population = new long[this._populationSize];
+			this._offspring = new long[this._populationSize];
+			this._fitness = new int[this._populationSize];
+		}
+
+		for (int i = 0; i < this._populationSize; i++)
+		{
+			this._population[i] = randomCode(solver, random);
+		}
+
+		int count = 0;
+		for (int generation = 0; generation < this._generations && count < size; generation++)
+		{
+			if(Thread.currentThread().isInterrupted())
+				break;
+
+			this.evaluate(solver);
+
+			//every consistent code is eligible, but only once
+			int best = 0;
+			for (int i = 0; i < this._populationSize; i++)
+			{
+				if(this._fitness[i] < this._fitness[best])
+					best = i;
+
+				if(this._fitness[i] == 0 && count < size && !contains(sample, count, this._population[i]))
+					sample[count++] = this._population[i];
+			}
+
+			this.breed(best, length, colors, random);
+		}
+
+		//evolution found nothing, fall back to the random walk
+		if(count == 0)
+			return super.sample(solver, random, sample);
+
+		return count;
+	}
+
+	/**
+	 * Computes the fitness of every code in the population
+	 */
+	private void evaluate(Solver solver)
+	{
+		long[] population = this._population;
+		int[] fitness = this._fitness;
+		IntStream codes = IntStream.range(0, population.length);
+
+		//a thread of a pool that joins a task may run unrelated tasks meanwhile, which could enter this strategy again
+		if((long)population.length * solver.getTurn() < PARALLEL_THRESHOLD || PartitionStrategy.POOL.getParallelism() <= 1
+				|| Thread.currentThread() instanceof ForkJoinWorkerThread)
+			codes.forEach(i -> fitness[i] = solver.distance(population[i]));
+		else
+			//a parallel stream runs on the pool it is started from
+			PartitionStrategy.POOL.submit(() -> codes.parallel().forEach(i -> fitness[i] = solver.distance(population[i]))).join();
+	}
+
+	/**
+	 * Replaces the population by its offspring
+	 * @param best the index of the fittest code, which survives
+	 */
+	private void breed(int best, int length, int colors, Random random)
+	{
+		this._offspring[0] = this._population[best];
+
+		for (int i = 1; i < this._populationSize; i++)
+		{
+			long mother = this._population[this.select(random)];
+			long father = this._population[this.select(random)];
+
+			//the pins before the crossover point come from the mother, the others from the father
+			int point = random.nextInt(length + 1);
+			long child = (mother & PackedCode.mask(point)) | (father & ~PackedCode.mask(point) & PackedCode.mask(length));
+
+			if(random.nextDouble() < MUTATION_RATE)
+				child = PackedCode.setPin(child, random.nextInt(length), random.nextInt(colors));
+
+			if(length > 1 && random.nextDouble() < PERMUTATION_RATE)
+			{
+				int a = random.nextInt(length);
+				int b = random.nextInt(length);
+				int pin = PackedCode.pinAt(child, a);
+				child = PackedCode.setPin(child, a, PackedCode.pinAt(child, b));
+				child = PackedCode.setPin(child, b, pin);
+			}
+
+			if(length > 1 && random.nextDouble() < INVERSION_RATE)
+			{
+				int from = random.nextInt(length);
+				int to = from + random.nextInt(length - from);
+				for (; from < to; from++, to--)
+				{
+					int pin = PackedCode.pinAt(child, from);
+					child = PackedCode.setPin(child, from, PackedCode.pinAt(child, to));
+					child = PackedCode.setPin(child, to, pin);
+				}
+			}
+
+			this._offspring[i] = child;
+		}
+
+		long[] swap = this._population;
+		this._population = this._offspring;
+		this._offspring = swap;
+	}
+
+	/**
+	 * Picks the fittest of {@code TOURNAMENT_SIZE} random codes
+	 * @return the index of the code
+	 */
+	private int select(Random random)
+	{
+		int winner = random.nextInt(this._populationSize);
+		for (int i = 1; i < TOURNAMENT_SIZE; i++)
+		{
+			int challenger = random.nextInt(this._populationSize);
+			if(this._fitness[challenger] < this._fitness[winner])
+				winner = challenger;
+		}
+
+		return winner;
+	}
+
+	/**
+	 * Checks if the first codes of an array contain a code
+	 */
+	private static boolean contains(long[] codes, int count, long code)
+	{
+		for (int i = 0; i < count; i++)
+		{
+			if(codes[i] == code)
+				return true;
+		}
+
+		return false;
+	}
+
+	private static int checkPositive(int value)
+	{
+		if(value < 1)
+			throw new IllegalArgumentException(Integer.toString(value));
+
+		return value;
+	}
+}
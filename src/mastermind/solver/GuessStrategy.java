@@ -0,0 +1,25 @@
+package mastermind.solver;
+
+/**
+ * An Interface used for defining how the computer picks its next guess.
+ * <p>Implementations may keep scratch memory between calls, so a single instance should only be used by one Solver at a time.
+ * @author Tom van Nimwegen
+ * @see Solver
+ */
+public interface GuessStrategy
+{
+	/**
+	 * Picks the next guess
+	 * @param solver the solver containing the remaining candidates and the guesses that were already played
+	 * @return the packed code of the next guess
+	 */
+	long nextGuess(Solver solver);
+
+	/**
+	 * Gives back the memory this strategy keeps between calls that is shared with other strategies, see
+	 * {@code Partitions.allocate(FeedbackTable)}. The strategy can still be used afterwards
+	 */
+	default void release()
+	{
+	}
+}
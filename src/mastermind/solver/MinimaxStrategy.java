@@ -0,0 +1,49 @@
+package mastermind.solver;
+
+import java.util.Arrays;
+
+/**
+ * A GuessStrategy based on Knuth's minimax algorithm.
+ * <p>For every possible guess the remaining candidates are split up by the feedback they would give.
+ * The guess with the smallest worst bucket is picked. Evaluating a guess stops as soon as one of its buckets
+ * grows larger than the worst bucket of the best guess so far.
+ * @author Tom van Nimwegen
+ * @see PartitionStrategy
+ */
+public class MinimaxStrategy extends PartitionStrategy
+{
+	@Override
+	protected long evaluate(FeedbackTable table, int guess, CandidateSet candidates, int[] histogram, long limit)
+	{
+		Arrays.fill(histogram, 0);
+
+		int worst = 0;
+		for (int index = candidates.nextIndex(0); index >= 0; index = candidates.nextIndex(index + 1))
+		{
+			int count = ++histogram[table.feedback(guess, index)];
+
+			if(count > worst)
+			{
+				worst = count;
+
+				//this guess can never beat the best guess so far
+				if(worst > limit)
+					break;
+			}
+		}
+
+		return worst;
+	}
+
+	@Override
+	protected long score(int[] histogram, int total)
+	{
+		int worst = 0;
+		for (int count : histogram)
+		{
+			worst = Math.max(worst, count);
+		}
+
+		return worst;
+	}
+}
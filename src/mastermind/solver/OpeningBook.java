@@ -0,0 +1,255 @@
+package mastermind.solver;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Random;
+
+import mastermind.PackedCode;
+
+/**
+ * A precomputed decision tree of the guesses a GuessStrategy makes for every possible sequence of feedbacks.
+ * <p>The tree is stored in a single buffer. Every node is written as the ordinal of its guess ({@code int}), the number
+ * of children ({@code byte}) and then for every child the packed feedback that leads to it ({@code byte}) and the
+ * offset of the child node ({@code int}). The root node is at offset 0. A winning feedback never has a child.
+ * <p>Walking the tree takes one step per turn, so looking up the next guess does not depend on the size of the code space.
+ * Use a BookStrategy to play from the book and fall back to a live strategy when the feedback leaves the tree.
+ * @author Tom van Nimwegen
+ * @see BookStrategy
+ */
+public class OpeningBook
+{
+	/**
+	 * The maximum number of codes in a CodeSpace for which a book is generated
+	 */
+	public static int MAX_CODES = 4096;
+
+	/**
+	 * The kind of a book in a SolverCache
+	 */
+	private static final String CACHE_KIND = "book";
+	/**
+	 * The number of bytes in a node before its children
+	 */
+	private static final int NODE_SIZE = Integer.BYTES + 1;
+	/**
+	 * The number of bytes of a single child in a node
+	 */
+	private static final int CHILD_SIZE = 1 + Integer.BYTES;
+
+	/**
+	 * The serialized tree
+	 */
+	private final ByteBuffer _tree;
+
+	/**
+	 * Constructs a new OpeningBook from a serialized tree
+	 * @param tree the serialized tree, starting at position 0
+	 */
+	public OpeningBook(ByteBuffer tree)
+	{
+		this._tree = tree;
+	}
+
+	/**
+	 * Gets the OpeningBook of a strategy from a SolverCache. The book is generated and stored in the cache when it is
+	 * not in there yet.
+	 * @param table the feedback table of all codes
+	 * @param strategy the strategy to generate the book with
+	 * @param cache the cache to use
+	 * @param palette the palette of Pins, see {@code SolverCache.palette()}
+	 * @return the OpeningBook, or NULL if the CodeSpace has more than {@code MAX_CODES} codes
+	 */
+	public static OpeningBook cached(FeedbackTable table, GuessStrategy strategy, SolverCache cache, String palette)
+	{
+		if(table.size() > MAX_CODES)
+			return null;
+
+		String name = strategy.getClass().getSimpleName();
+		ByteBuffer tree = cache.getOrBuild(CACHE_KIND, table.getLength(), palette, name, () -> generate(table, strategy)._tree);
+
+		return new OpeningBook(tree);
+	}
+
+	/**
+	 * Generates a new OpeningBook by running a strategy over every possible feedback path
+	 * @param table the feedback table of all codes
+	 * @param strategy the strategy to generate the book with
+	 * @return the new OpeningBook
+	 */
+	public static OpeningBook generate(FeedbackTable table, GuessStrategy strategy)
+	{
+		Solver solver = new Solver(table, strategy, new Random(0));
+		Writer out = new Writer();
+
+		generate(solver, out, PackedCode.feedbackCount(table.getLength()));
+
+		return new OpeningBook(ByteBuffer.wrap(Arrays.copyOf(out._data, out._size)));
+	}
+
+	/**
+	 * Writes the node for the current state of a Solver, followed by all of its children
+	 */
+	private static void generate(Solver solver, Writer out, int buckets)
+	{
+		FeedbackTable table = solver.getTable();
+		int win = PackedCode.feedback(solver.getLength(), 0, solver.getLength());
+
+		long guess = solver.nextGuess();
+		int guessIndex = solver.indexOf(guess);
+
+		//find out which feedbacks are possible for this guess
+		int[] histogram = new int[buckets];
+		CandidateSet candidates = solver.getCandidates();
+		for (int index = candidates.nextIndex(0); index >= 0; index = candidates.nextIndex(index + 1))
+		{
+			histogram[table.feedback(guessIndex, index)]++;
+		}
+
+		int children = 0;
+		for (int feedback = 0; feedback < buckets; feedback++)
+		{
+			if(histogram[feedback] > 0 && feedback != win)
+				children++;
+		}
+
+		out.putInt(guessIndex);
+		out.putByte(children);
+		int childTable = out.reserve(children * CHILD_SIZE);
+
+		//remember the state, every child starts from here
+		CandidateSet savedCandidates = candidates.copy();
+		CandidateSet savedPlayed = solver.getPlayed().copy();
+		int turn = solver.getTurn();
+
+		int child = 0;
+		for (int feedback = 0; feedback < buckets; feedback++)
+		{
+			if(histogram[feedback] == 0 || feedback == win)
+				continue;
+
+			out.setByte(childTable + child * CHILD_SIZE, feedback);
+			out.setInt(childTable + child * CHILD_SIZE + 1, out._size);
+
+			solver.addFeedback(guess, feedback);
+			generate(solver, out, buckets);
+			solver.restore(savedCandidates, savedPlayed, turn);
+
+			child++;
+		}
+	}
+
+	/**
+	 * Gets the offset of the root node
+	 */
+	public int root()
+	{
+		return 0;
+	}
+
+	/**
+	 * Gets the guess of a node
+	 * @param node the offset of the node
+	 * @return the ordinal of the guess
+	 */
+	public int guessAt(int node)
+	{
+		return this._tree.getInt(node);
+	}
+
+	/**
+	 * Gets a child of a node
+	 * @param node the offset of the node
+	 * @param feedback the packed feedback given for the guess of the node
+	 * @return the offset of the child node, or -1 if the feedback is not in the book
+	 */
+	public int child(int node, int feedback)
+	{
+		int children = this._tree.get(node + Integer.BYTES);
+		int offset = node + NODE_SIZE;
+
+		for (int i = 0; i < children; i++)
+		{
+			if(this._tree.get(offset) == feedback)
+				return this._tree.getInt(offset + 1);
+
+			offset += CHILD_SIZE;
+		}
+
+		return -1;
+	}
+
+	/**
+	 * Finds the node for the current state of a Solver by following its history from the root
+	 * @param solver the solver
+	 * @return the offset of the node, or -1 if the history leaves the book
+	 */
+	public int find(Solver solver)
+	{
+		int node = this.root();
+
+		for (int turn = 0; turn < solver.getTurn(); turn++)
+		{
+			if(this.guessAt(node) != solver.indexOf(solver.getGuess(turn)))
+				return -1;
+
+			node = this.child(node, solver.getFeedback(turn));
+
+			if(node < 0)
+				return -1;
+		}
+
+		return node;
+	}
+
+	/**
+	 * Gets the number of bytes of the serialized tree
+	 */
+	public int size()
+	{
+		return this._tree.capacity();
+	}
+
+	/**
+	 * A growable byte array used to serialize the tree
+	 */
+	private static class Writer
+	{
+		byte[] _data = new byte[1024];
+		int _size = 0;
+
+		int reserve(int count)
+		{
+			int offset = this._size;
+
+			if(this._size + count > this._data.length)
+				this._data = Arrays.copyOf(this._data, Math.max(this._data.length * 2, this._size + count));
+
+			this._size += count;
+			return offset;
+		}
+
+		void putByte(int value)
+		{
+			this.setByte(this.reserve(1), value);
+		}
+
+		void putInt(int value)
+		{
+			this.setInt(this.reserve(Integer.BYTES), value);
+		}
+
+		void setByte(int offset, int value)
+		{
+			this._data[offset] = (byte)value;
+		}
+
+		void setInt(int offset, int value)
+		{
+			//big endian, the same as ByteBuffer
+			this._data[offset] = (byte)(value >>> 24);
+			this._data[offset + 1] = (byte)(value >>> 16);
+			this._data[offset + 2] = (byte)(value >>> 8);
+			this._data[offset + 3] = (byte)value;
+		}
+	}
+}
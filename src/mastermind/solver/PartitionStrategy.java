@@ -0,0 +1,477 @@
+package mastermind.solver;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+import mastermind.PackedCode;
+
+/**
+ * The base class for all strategies that score a guess by how it splits up the remaining candidates.
+ * <p>For every guess in the guess pool the candidates are put into a histogram by the feedback they would give.
+ * The histogram is turned into a score by {@code score(int[], int)} and the guess with the lowest score wins.
+ * Ties are broken in favour of guesses that are still candidates (they can win right away) and after that by the
+ * lowest index, so the result never depends on how the work was split up.
+ * <p>The guess pool contains every code that was not played yet. When scoring every code against every candidate
+ * would take more than {@code WORK_LIMIT} table lookups (or {@code LIVE_WORK_LIMIT} live scores when the table is not
+ * precomputed), only the candidates are used, and if that is still too much work an evenly spread selection of the
+ * candidates. The first guess of a game is the shape with the best score, see {@code opening(Solver)}.
+ * <p>Guesses that are equivalent under a Symmetry of the history split up the candidates the same way, so only the
+ * first guess of every class is put in the pool. Because that guess also has the lowest index of its class, the picked
+ * guess is the same as without symmetry. The smaller pool can also fit in the work limit where the full pool could not,
+ * so large games get to evaluate every code earlier.
+ * <p>When there is more than {@code PARALLEL_THRESHOLD} work the guess pool is split into ranges that are
+ * evaluated on {@code POOL}. Every worker uses its own histogram, so evaluating a guess never allocates.
+ * <p>When keeping the Partitions of every code up to date is not more work than evaluating the pool, they are used
+ * instead: the histograms only change by the candidates that were removed since the last turn, and every code is
+ * evaluated by reading its histogram.
+ * @author Tom van Nimwegen
+ * @see GuessStrategy
+ */
+public abstract class PartitionStrategy implements GuessStrategy
+{
+	/**
+	 * The maximum number of (guess, candidate) compares before the guesses are limited to the candidates
+	 */
+	public static long WORK_LIMIT = 20_000_000L;
+	/**
+	 * The maximum number of (guess, candidate) compares before the guesses are limited to the candidates, when the feedback table is not precomputed
+	 */
+	public static long LIVE_WORK_LIMIT = 2_000_000L;
+	/**
+	 * The minimum number of (guess, candidate) compares before the guesses are evaluated in parallel
+	 */
+	public static long PARALLEL_THRESHOLD = 250_000L;
+	/**
+	 * The pool used for parallel evaluation
+	 */
+	public static ForkJoinPool POOL = ForkJoinPool.commonPool();
+	/**
+	 * Tells if the partition histograms are kept up to date across turns
+	 * @see Partitions
+	 */
+	public static boolean INCREMENTAL = true;
+	/**
+	 * Tells if guesses that are equivalent by symmetry are evaluated only once
+	 * @see Symmetry
+	 */
+	public static boolean SYMMETRY = true;
+
+	/**
+	 * The indices of the guesses that will be evaluated. Only the first {@code _poolSize} entries are used
+	 */
+	private int[] _pool = new int[0];
+	/**
+	 * The number of guesses in the guess pool
+	 */
+	private int _poolSize;
+	/**
+	 * The partition histograms of every code, kept up to date across turns. NULL until first used, or while there is no room for them
+	 */
+	private Partitions _partitions;
+	/**
+	 * The representatives of the equivalence classes already in the guess pool
+	 */
+	private CandidateSet _seen;
+	/**
+	 * The partition histogram used when evaluating on the calling thread
+	 */
+	private int[] _histogram = new int[0];
+	/**
+	 * The table the opening was picked for. NULL until the first opening
+	 */
+	private FeedbackTable _openingTable;
+	/**
+	 * The packed code of the opening for {@code _openingTable}
+	 */
+	private long _opening;
+
+	@Override
+	public long nextGuess(Solver solver)
+	{
+		CandidateSet candidates = solver.getCandidates();
+		FeedbackTable table = solver.getTable();
+
+		//there is only one code left, so that has to be it
+		if(candidates.size() == 1)
+			return solver.getCode(candidates.nextIndex(0));
+
+		//nothing is known yet, play the opening
+		if(candidates.size() == table.size())
+			return this.opening(solver);
+
+		long limit = table.isPrecomputed() ? WORK_LIMIT : LIVE_WORK_LIMIT;
+		Symmetry symmetry = SYMMETRY ? Symmetry.of(solver) : null;
+		int buckets = PackedCode.feedbackCount(solver.getLength());
+
+		if(this._histogram.length != buckets)
+			this._histogram = new int[buckets];
+
+		Evaluation best;
+		boolean complete = this.fillPool(solver, symmetry, limit);
+		long work = (long)this._poolSize * candidates.size();
+
+		//use the partition histograms when keeping them up to date is not more work than evaluating the pool
+		Partitions partitions = this.updatePartitions(candidates, table, Math.min(limit, work));
+		if(partitions != null)
+		{
+			//every histogram is known, so every code can be evaluated
+			if(!complete)
+				this.fillPool(solver, symmetry, false, 1);
+
+			best = new Evaluation();
+			for (int i = 0; i < this._poolSize; i++)
+			{
+				int guess = this._pool[i];
+				partitions.histogram(guess, this._histogram);
+				best.offer(guess, this.score(this._histogram, candidates.size()), candidates.contains(guess));
+			}
+		}
+		else if(work < PARALLEL_THRESHOLD || POOL.getParallelism() <= 1)
+		{
+			best = this.evaluateRange(table, candidates, this._histogram, 0, this._poolSize);
+		}
+		else
+		{
+			//split the pool in ranges with at least PARALLEL_THRESHOLD / 4 work each
+			int grain = (int)Math.max(1, PARALLEL_THRESHOLD / 4 / candidates.size());
+			best = POOL.invoke(new EvaluateTask(table, candidates, buckets, grain, 0, this._poolSize));
+		}
+
+		//every code was played already, there is nothing better than a candidate
+		if(best.guess < 0)
+			return solver.getCode(candidates.nextIndex(0));
+		
+		return solver.getCode(best.guess);
+	}
+
+	@Override
+	public void release()
+	{
+		if(this._partitions != null)
+		{
+			this._partitions.release();
+			this._partitions = null;
+		}
+	}
+
+	/**
+	 * Brings the partition histograms up to date with the candidates
+	 * @param limit the maximum number of feedback lookups the update may take
+	 * @return the partition histograms, or NULL if they should not be used this turn
+	 */
+	private Partitions updatePartitions(CandidateSet candidates, FeedbackTable table, long limit)
+	{
+		if(!INCREMENTAL || !Partitions.fits(table))
+			return null;
+
+		if(this._partitions == null || this._partitions.getTable() != table)
+		{
+			//all strategies together may not use more than Partitions.TOTAL_MEMORY_LIMIT, try again next turn
+			this._partitions = Partitions.allocate(table);
+			if(this._partitions == null)
+				return null;
+		}
+
+		long cost = this._partitions.updateCost(candidates);
+		if(cost > limit)
+		{
+			this._partitions.invalidate();
+			return null;
+		}
+
+		this._partitions.update(candidates, cost < PARALLEL_THRESHOLD || POOL.getParallelism() <= 1 ? null : POOL);
+		return this._partitions;
+	}
+
+	/**
+	 * Fills the guess pool for the current state of a Solver
+	 * @param symmetry the symmetry of the history, or NULL
+	 * @param limit the maximum number of feedback lookups
+	 * @return true if the pool contains every code that was not played yet, or one of every class of the symmetry
+	 */
+	private boolean fillPool(Solver solver, Symmetry symmetry, long limit)
+	{
+		CandidateSet candidates = solver.getCandidates();
+		FeedbackTable table = solver.getTable();
+
+		//try every code first, symmetry can make that cheap enough
+		if(symmetry != null || (long)table.size() * candidates.size() <= limit)
+		{
+			this.fillPool(solver, symmetry, false, 1);
+
+			if((long)this._poolSize * candidates.size() <= limit)
+				return true;
+		}
+
+		//only use every stride-th candidate when there is too much work even for the candidates alone
+		long stride = Math.max(1, (long)candidates.size() * candidates.size() / limit);
+		this.fillPool(solver, symmetry, true, stride);
+		return false;
+	}
+
+	/**
+	 * Fills the guess pool with the codes that were not played yet
+	 * @param symmetry the symmetry of the history, only one code of every class is added. NULL to add every code
+	 * @param candidatesOnly only add candidates
+	 * @param stride only add every stride-th code
+	 */
+	private void fillPool(Solver solver, Symmetry symmetry, boolean candidatesOnly, long stride)
+	{
+		CandidateSet candidates = solver.getCandidates();
+		CandidateSet played = solver.getPlayed();
+		FeedbackTable table = solver.getTable();
+
+		if(this._pool.length < table.size())
+			this._pool = new int[table.size()];
+
+		if(symmetry != null)
+		{
+			if(this._seen == null || this._seen.capacity() != table.size())
+				this._seen = new CandidateSet(table.size());
+			else
+				this._seen.clear();
+		}
+
+		long seen = 0;
+		int count = 0;
+		for (int guess = 0; guess < table.size(); guess++)
+		{
+			if(candidatesOnly && (!candidates.contains(guess) || seen++ % stride != 0))
+				continue;
+
+			if(played.contains(guess))
+				continue;
+
+			//codes are visited in order, so the first code of every class is also the lowest
+			if(symmetry != null && !this._seen.add(solver.indexOf(symmetry.canonical(table.getCode(guess)))))
+				continue;
+
+			this._pool[count++] = guess;
+		}
+
+		this._poolSize = count;
+	}
+
+	/**
+	 * Evaluates a range of the guess pool
+	 * @param histogram the histogram to use, owned by the calling thread
+	 * @param from the first position in the pool, inclusive
+	 * @param to the last position in the pool, exclusive
+	 * @return the best guess in the range
+	 */
+	private Evaluation evaluateRange(FeedbackTable table, CandidateSet candidates, int[] histogram, int from, int to)
+	{
+		Evaluation best = new Evaluation();
+
+		for (int i = from; i < to; i++)
+		{
+			int guess = this._pool[i];
+			boolean isCandidate = candidates.contains(guess);
+			long score = this.evaluate(table, guess, candidates, histogram, best.score);
+
+			best.offer(guess, score, isCandidate);
+		}
+
+		return best;
+	}
+
+	/**
+	 * Evaluates a single guess. The default implementation fills the histogram and calls {@code score(int[], int)}.
+	 * Subclasses can override this to stop early when a guess can not beat {@code limit}.
+	 * @param table the feedback table
+	 * @param guess the index of the guess
+	 * @param candidates the remaining candidates
+	 * @param histogram the histogram to fill, indexed by packed feedback
+	 * @param limit the score of the best guess so far
+	 * @return the score of the guess, lower is better. May be any number larger than {@code limit} if the evaluation was stopped
+	 */
+	protected long evaluate(FeedbackTable table, int guess, CandidateSet candidates, int[] histogram, long limit)
+	{
+		Arrays.fill(histogram, 0);
+
+		for (int index = candidates.nextIndex(0); index >= 0; index = candidates.nextIndex(index + 1))
+		{
+			histogram[table.feedback(guess, index)]++;
+		}
+
+		return this.score(histogram, candidates.size());
+	}
+
+	/**
+	 * Turns a partition histogram into a score
+	 * @param histogram the number of candidates for every packed feedback
+	 * @param total the total number of candidates
+	 * @return the score of the partition, lower is better
+	 */
+	protected abstract long score(int[] histogram, int total);
+
+	/**
+	 * Picks the opening guess of this strategy, the code with the best score when every code is a candidate.
+	 * <p>Before the first turn the order of the positions and the names of the Pins do not matter, so every code with
+	 * the same shape, the number of positions of every Pin, splits up the codes the same way. Only one code of every
+	 * shape is evaluated, and {@code opening(int, int)} wins a tie. The opening is remembered for the table.
+	 * @param solver the solver, every code has to be a candidate
+	 * @return the packed code of the opening guess
+	 */
+	protected long opening(Solver solver)
+	{
+		FeedbackTable table = solver.getTable();
+		if(this._openingTable == table)
+			return this._opening;
+
+		CandidateSet candidates = solver.getCandidates();
+		int[] histogram = new int[PackedCode.feedbackCount(solver.getLength())];
+
+		long best = opening(solver.getLength(), solver.getColors());
+		long bestScore = this.evaluate(table, solver.indexOf(best), candidates, histogram, Long.MAX_VALUE);
+
+		for (long shape : shapes(solver.getLength(), solver.getColors()))
+		{
+			long score = this.evaluate(table, solver.indexOf(shape), candidates, histogram, bestScore);
+			if(score < bestScore)
+			{
+				best = shape;
+				bestScore = score;
+			}
+		}
+
+		this._openingTable = table;
+		this._opening = best;
+		return best;
+	}
+
+	/**
+	 * Creates one code of every shape: the first Pin in the most positions, then the second Pin, and so on
+	 * @param length the number of positions in a code
+	 * @param colors the number of different Pins
+	 * @return the packed codes, from {@code AAAA} to {@code ABCD}
+	 */
+	static List<Long> shapes(int length, int colors)
+	{
+		List<Long> shapes = new ArrayList<Long>();
+		shapes(shapes, 0L, 0, 0, length, length, colors);
+		return shapes;
+	}
+
+	/**
+	 * Adds every shape that starts with a code to a list
+	 * @param code the packed code with its first {@code position} positions set
+	 * @param color the next Pin to use
+	 * @param largest the most positions the next Pin may use, so no shape is added twice
+	 */
+	private static void shapes(List<Long> shapes, long code, int position, int color, int largest, int length, int colors)
+	{
+		if(position == length)
+		{
+			shapes.add(code);
+			return;
+		}
+
+		if(color == colors)
+			return;
+
+		for (int part = Math.min(largest, length - position); part > 0; part--)
+		{
+			long next = code;
+			for (int i = position; i < position + part; i++)
+			{
+				next = PackedCode.setPin(next, i, color);
+			}
+
+			shapes(shapes, next, position + part, color + 1, part, length, colors);
+		}
+	}
+
+	/**
+	 * Creates the default opening guess, which uses every Pin in two positions: {@code AABB}, {@code AABBC}, {@code AABBCC}, ...
+	 * @param length the number of positions in a code
+	 * @param colors the number of different Pins
+	 * @return the packed code of the opening guess
+	 */
+	public static long opening(int length, int colors)
+	{
+		long code = 0;
+		for (int i = 0; i < length; i++)
+		{
+			code = PackedCode.setPin(code, i, Math.min(i / 2, colors - 1));
+		}
+
+		return code;
+	}
+
+	/**
+	 * The best guess of a range of the guess pool
+	 */
+	private static class Evaluation
+	{
+		int guess = -1;
+		long score = Long.MAX_VALUE;
+		boolean candidate = false;
+
+		/**
+		 * Replaces the current best guess if the offered guess is better
+		 */
+		void offer(int guess, long score, boolean candidate)
+		{
+			if(guess < 0)
+				return;
+			
+			boolean better = score < this.score
+					|| (score == this.score && candidate && !this.candidate)
+					|| (score == this.score && candidate == this.candidate && guess < this.guess);
+
+			if(this.guess < 0 || better)
+			{
+				this.guess = guess;
+				this.score = score;
+				this.candidate = candidate;
+			}
+		}
+	}
+
+	/**
+	 * A task that evaluates a range of the guess pool, splitting it in half until it is small enough
+	 */
+	private class EvaluateTask extends RecursiveTask<Evaluation>
+	{
+		private static final long serialVersionUID = 1L;
+
+		private final FeedbackTable _table;
+		private final CandidateSet _candidates;
+		private final int _buckets;
+		private final int _grain;
+		private final int _from;
+		private final int _to;
+
+		EvaluateTask(FeedbackTable table, CandidateSet candidates, int buckets, int grain, int from, int to)
+		{
+			this._table = table;
+			this._candidates = candidates;
+			this._buckets = buckets;
+			this._grain = grain;
+			this._from = from;
+			this._to = to;
+		}
+
+		@Override
+		protected Evaluation compute()
+		{
+			if(this._to - this._from <= this._grain)
+				return evaluateRange(this._table, this._candidates, new int[this._buckets], this._from, this._to);
+
+			int middle = (this._from + this._to) >>> 1;
+			EvaluateTask left = new EvaluateTask(this._table, this._candidates, this._buckets, this._grain, this._from, middle);
+			EvaluateTask right = new EvaluateTask(this._table, this._candidates, this._buckets, this._grain, middle, this._to);
+
+			left.fork();
+			Evaluation best = right.compute();
+			Evaluation other = left.join();
+
+			best.offer(other.guess, other.score, other.candidate);
+			return best;
+		}
+	}
+}
@@ -0,0 +1,279 @@
+package mastermind.solver;
+
+import java.lang.ref.PhantomReference;
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.IntStream;
+
+import mastermind.PackedCode;
+
+/**
+ * The partition histograms of every code against a set of candidates, kept up to date across turns.
+ * <p>For every code there is a histogram of the candidates by the feedback they would give. When the candidates
+ * change, only the candidates that were removed (or added back) are subtracted from (or added to) every histogram, so
+ * keeping the histograms up to date scales with the number of changed candidates instead of the number of candidates
+ * that are left. When more candidates changed than are left, the histograms are simply rebuilt from the candidates.
+ * <p>With the histograms up to date, evaluating a guess only has to read its histogram.
+ * @author Tom van Nimwegen
+ * @see PartitionStrategy
+ */
+public class Partitions
+{
+	/**
+	 * The maximum number of bytes used for the histograms
+	 */
+	public static long MEMORY_LIMIT = 64L * 1024 * 1024;
+	/**
+	 * The maximum number of bytes used for the histograms of all Partitions made by {@code allocate(FeedbackTable)}
+	 * together
+	 */
+	public static long TOTAL_MEMORY_LIMIT = 256L * 1024 * 1024;
+
+	/**
+	 * The number of bytes reserved by the Partitions made by {@code allocate(FeedbackTable)} that were not released
+	 */
+	private static final AtomicLong _reserved = new AtomicLong();
+	/**
+	 * Gets the reservations of Partitions that were collected
+	 */
+	private static final ReferenceQueue<Partitions> _collected = new ReferenceQueue<Partitions>();
+	/**
+	 * The reservations that were not released yet. The references have to stay reachable to be enqueued
+	 */
+	private static final Set<Reservation> _reservations = ConcurrentHashMap.newKeySet();
+
+	/**
+	 * The feedback table of all codes
+	 */
+	private final FeedbackTable _table;
+	/**
+	 * The number of different feedbacks
+	 */
+	private final int _buckets;
+	/**
+	 * The histogram of every code, {@code _buckets} counts per code
+	 */
+	private final int[] _counts;
+	/**
+	 * The candidates the histograms were built for
+	 */
+	private final CandidateSet _tracked;
+	/**
+	 * Tells if the histograms match {@code _tracked}
+	 */
+	private boolean _valid;
+	/**
+	 * The memory reserved for these Partitions by {@code allocate(FeedbackTable)}. NULL if nothing is reserved
+	 */
+	private Reservation _reservation;
+
+	/**
+	 * Constructs new, empty Partitions
+	 * @param table the feedback table of all codes
+	 * @throws IllegalArgumentException if the histograms would use more than {@code MEMORY_LIMIT}
+	 */
+	public Partitions(FeedbackTable table)
+	{
+		if(!fits(table))
+			throw new IllegalArgumentException(table.getSpace().toString());
+
+		this._table = table;
+		this._buckets = PackedCode.feedbackCount(table.getLength());
+		this._counts = new int[table.size() * this._buckets];
+		this._tracked = new CandidateSet(table.size());
+		this._valid = false;
+	}
+
+	/**
+	 * Checks if the histograms for a feedback table fit in {@code MEMORY_LIMIT}
+	 * @param table the feedback table of all codes
+	 */
+	public static boolean fits(FeedbackTable table)
+	{
+		long counts = (long)table.size() * PackedCode.feedbackCount(table.getLength());
+		return counts <= Integer.MAX_VALUE && counts * Integer.BYTES <= MEMORY_LIMIT;
+	}
+
+	/**
+	 * Makes new Partitions when their histograms fit in {@code MEMORY_LIMIT} and, together with the other Partitions
+	 * made by this method that were not released, in {@code TOTAL_MEMORY_LIMIT}. Every session has its own strategy,
+	 * so this keeps thousands of sessions from holding a set of histograms each. Partitions that are not released with
+	 * {@code release()} give back their memory when they are collected
+	 * @param table the feedback table of all codes
+	 * @return the new Partitions, or NULL if there is no room for them
+	 */
+	public static Partitions allocate(FeedbackTable table)
+	{
+		if(!fits(table))
+			return null;
+
+		//give back the memory of the Partitions that were collected
+		for (Reference<? extends Partitions> r; (r = _collected.poll()) != null;)
+		{
+			((Reservation)r).release();
+		}
+
+		long bytes = (long)table.size() * PackedCode.feedbackCount(table.getLength()) * Integer.BYTES;
+		for (long current = _reserved.get(); ; current = _reserved.get())
+		{
+			if(current + bytes > TOTAL_MEMORY_LIMIT)
+				return null;
+
+			if(_reserved.compareAndSet(current, current + bytes))
+				break;
+		}
+
+		Partitions partitions = new Partitions(table);
+		partitions._reservation = new Reservation(partitions, bytes);
+		_reservations.add(partitions._reservation);
+		return partitions;
+	}
+
+	/**
+	 * Gives back the memory reserved for these Partitions by {@code allocate(FeedbackTable)}, so other strategies can
+	 * allocate it. These Partitions should not be used after they are released
+	 */
+	public void release()
+	{
+		if(this._reservation != null)
+		{
+			this._reservation.release();
+			this._reservation = null;
+		}
+	}
+
+	/**
+	 * Gets the feedback table of these Partitions
+	 */
+	public FeedbackTable getTable()
+	{
+		return this._table;
+	}
+
+	/**
+	 * Estimates the number of feedback lookups {@code update(CandidateSet, ForkJoinPool)} would take
+	 * @param candidates the new candidates
+	 */
+	public long updateCost(CandidateSet candidates)
+	{
+		long changed = this._valid ? this._tracked.differenceSize(candidates) : Long.MAX_VALUE;
+		return Math.min(changed, candidates.size()) * (long)this._table.size();
+	}
+
+	/**
+	 * Brings the histograms up to date with a set of candidates
+	 * @param candidates the new candidates
+	 * @param pool the pool to update the codes on in parallel, or NULL to update them on the calling thread
+	 */
+	public void update(CandidateSet candidates, ForkJoinPool pool)
+	{
+		if(pool == null)
+			this.update(candidates, IntStream.range(0, this._table.size()));
+		else
+			//a parallel stream runs on the pool it is started from
+			pool.submit(() -> this.update(candidates, IntStream.range(0, this._table.size()).parallel())).join();
+	}
+
+	/**
+	 * Brings the histograms up to date with a set of candidates
+	 * @param codes the indices of all codes
+	 */
+	private void update(CandidateSet candidates, IntStream codes)
+	{
+		int changed = this._valid ? this._tracked.differenceSize(candidates) : Integer.MAX_VALUE;
+
+		if(changed == 0)
+			return;
+
+		if(changed < candidates.size())
+		{
+			//only go through the candidates that changed, removed ones were in the tracked set
+			CandidateSet delta = this._tracked.copy();
+			delta.xor(candidates);
+			int[] indices = new int[delta.size()];
+			int[] signs = new int[delta.size()];
+
+			for (int i = 0, index = delta.nextIndex(0); index >= 0; i++, index = delta.nextIndex(index + 1))
+			{
+				indices[i] = index;
+				signs[i] = candidates.contains(index) ? 1 : -1;
+			}
+
+			codes.forEach(guess ->
+			{
+				int offset = guess * this._buckets;
+				for (int i = 0; i < indices.length; i++)
+				{
+					this._counts[offset + this._table.feedback(guess, indices[i])] += signs[i];
+				}
+			});
+		}
+		else
+		{
+			//rebuilding is cheaper than going through the changes
+			codes.forEach(guess ->
+			{
+				int offset = guess * this._buckets;
+				for (int b = 0; b < this._buckets; b++)
+				{
+					this._counts[offset + b] = 0;
+				}
+
+				for (int index = candidates.nextIndex(0); index >= 0; index = candidates.nextIndex(index + 1))
+				{
+					this._counts[offset + this._table.feedback(guess, index)]++;
+				}
+			});
+		}
+
+		this._tracked.copyFrom(candidates);
+		this._valid = true;
+	}
+
+	/**
+	 * Marks the histograms as out of date, so the next update rebuilds them
+	 */
+	public void invalidate()
+	{
+		this._valid = false;
+	}
+
+	/**
+	 * Copies the histogram of a code
+	 * @param guess the index of the code
+	 * @param histogram the array to copy the histogram into, indexed by packed feedback
+	 */
+	public void histogram(int guess, int[] histogram)
+	{
+		System.arraycopy(this._counts, guess * this._buckets, histogram, 0, this._buckets);
+	}
+
+	/**
+	 * The memory reserved by Partitions, given back when they are released or collected
+	 */
+	private static class Reservation extends PhantomReference<Partitions>
+	{
+		private final long _bytes;
+
+		Reservation(Partitions partitions, long bytes)
+		{
+			super(partitions, _collected);
+			this._bytes = bytes;
+		}
+
+		/**
+		 * Gives back the reserved memory, only the first time
+		 */
+		void release()
+		{
+			if(_reservations.remove(this))
+				_reserved.addAndGet(-this._bytes);
+
+			this.clear();
+		}
+	}
+}
@@ -0,0 +1,17 @@
+package mastermind.solver;
+
+/**
+ * A GuessStrategy that picks a random code from the remaining candidates
+ * @author Tom van Nimwegen
+ * @see GuessStrategy
+ */
+public class RandomStrategy implements GuessStrategy
+{
+	@Override
+	public long nextGuess(Solver solver)
+	{
+		CandidateSet candidates = solver.getCandidates();
+		int index = candidates.get(solver.getRandom().nextInt(candidates.size()));
+		return solver.getCode(index);
+	}
+}
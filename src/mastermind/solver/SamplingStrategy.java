@@ -0,0 +1,356 @@
+package mastermind.solver;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import mastermind.CodeSpace;
+import mastermind.PackedCode;
+
+/**
+ * A GuessStrategy that plays games too large to enumerate, by working from a random sample of the consistent codes.
+ * <p>Every move draws up to {@code sampleSize} codes that are consistent with the history. Codes are first drawn
+ * uniformly at random and kept when they are consistent (rejection sampling). When the feedback so far leaves too few
+ * consistent codes for that to work, which is judged after {@code MIN_DRAWS} draws, the rest of the sample is
+ * collected by a random walk over the codes: a walk step changes the color of one position or swaps two positions, and
+ * is taken when it does not move further from consistency than a small random allowance (see
+ * {@code Solver.distance(long)}). Every consistent code the walk steps on is added to the sample.
+ * <p>Every distinct code in the sample is then scored by how it splits up the sample, using the sum of the squared
+ * partition sizes like {@code ExpectedSizeStrategy}, and the lowest score wins. If no consistent code was found at all,
+ * the closest code found is played instead.
+ * <p>The number of draws and walk steps are capped by {@code MAX_DRAWS} and {@code MAX_STEPS}, and the scoring takes
+ * {@code sampleSize * sampleSize} compares, so the time of a move does not depend on the size of the code space.
+ * Without a seed the Random of the Solver is used; with a seed every move gets a Random seeded from the seed and the
+ * history, so a game is reproducible no matter which games were played before.
+ * <p>When the thread is interrupted the move is cut short: drawing, walking and scoring stop, and the best guess so far
+ * is returned. The interrupt stays set. This lets {@code AnytimeStrategy} put a deadline on a move.
+ * @author Tom van Nimwegen
+ * @see GuessStrategy
+ */
+public class SamplingStrategy implements GuessStrategy
+{
+	/**
+	 * The default number of consistent codes in a sample
+	 */
+	public static int SAMPLE_SIZE = 256;
+	/**
+	 * The maximum number of codes drawn at random per move before falling back to the walk
+	 */
+	public static int MAX_DRAWS = 100_000;
+	/**
+	 * The number of codes drawn at random before deciding whether rejection sampling can fill the sample
+	 */
+	public static int MIN_DRAWS = 1000;
+	/**
+	 * The maximum number of walk steps per move
+	 */
+	public static int MAX_STEPS = 200_000;
+
+	/**
+	 * The number of consistent codes in a sample
+	 */
+	private final int _sampleSize;
+	/**
+	 * The seed of every move, only used if {@code _seeded}
+	 */
+	private final long _seed;
+	/**
+	 * Tells if moves use their own seeded Random instead of the Random of the Solver
+	 */
+	private final boolean _seeded;
+
+	/**
+	 * The consistent codes in the current sample
+	 */
+	private long[] _sample = new long[0];
+	/**
+	 * The distinct codes in the current sample, the guesses that are scored
+	 */
+	private long[] _guesses = new long[0];
+	/**
+	 * The partition histogram of the guess that is scored
+	 */
+	private int[] _histogram = new int[0];
+	/**
+	 * The number of codes in the current sample
+	 */
+	private int _count;
+	/**
+	 * The code closest to consistency found during the current move, played if no consistent code was found
+	 */
+	private long _closest;
+	/**
+	 * The distance of {@code _closest}
+	 */
+	private int _closestDistance;
+
+	/**
+	 * Constructs a new SamplingStrategy with {@code SAMPLE_SIZE} codes per sample, using the Random of the Solver
+	 */
+	public SamplingStrategy()
+	{
+		this(SAMPLE_SIZE);
+	}
+
+	/**
+	 * Constructs a new SamplingStrategy using the Random of the Solver
+	 * @param sampleSize the number of consistent codes in a sample
+	 */
+	public SamplingStrategy(int sampleSize)
+	{
+		this(sampleSize, 0, false);
+	}
+
+	/**
+	 * Constructs a new SamplingStrategy that picks the same guess every time it sees the same history
+	 * @param sampleSize the number of consistent codes in a sample
+	 * @param seed the seed of every move
+	 */
+	public SamplingStrategy(int sampleSize, long seed)
+	{
+		this(sampleSize, seed, true);
+	}
+
+	private SamplingStrategy(int sampleSize, long seed, boolean seeded)
+	{
+		if(sampleSize < 1)
+			throw new IllegalArgumentException(Integer.toString(sampleSize));
+
+		this._sampleSize = sampleSize;
+		this._seed = seed;
+		this._seeded = seeded;
+	}
+
+	/**
+	 * Gets the number of consistent codes in a sample
+	 */
+	public int getSampleSize()
+	{
+		return this._sampleSize;
+	}
+
+	@Override
+	public long nextGuess(Solver solver)
+	{
+		int length = solver.getLength();
+
+		//nothing is known yet, play the opening
+		if(solver.getTurn() == 0)
+			return PartitionStrategy.opening(length, solver.getColors());
+
+		Random random = this.randomOf(solver);
+
+		if(this._sample.length < this._sampleSize)
+			this._sample = new long[this._sampleSize];
+
+		//the code to fall back on is never one that was played, even when the move is cut short right away
+		this._closest = unplayedCode(solver, random);
+		this._closestDistance = solver.distance(this._closest);
+		this._count = this.sample(solver, random, this._sample);
+
+		//the feedback was inconsistent, the walk got stuck or the move was cut short, get as close as possible
+		if(this._count == 0)
+			return this._closest;
+
+		return this.best(length);
+	}
+
+	/**
+	 * Fills a sample with codes that are consistent with the history, by rejection sampling and a random walk.
+	 * Subclasses can override this to find consistent codes another way. The code played when the sample stays empty
+	 * is only improved by this implementation.
+	 * @param solver the solver containing the history
+	 * @param random the Random of the move
+	 * @param sample the array to fill, with room for {@code getSampleSize()} codes
+	 * @return the number of codes put in the sample
+	 */
+	protected int sample(Solver solver, Random random, long[] sample)
+	{
+		this._count = 0;
+		this.draw(solver, random, sample);
+
+		if(this._count < this._sampleSize)
+			this.walk(solver, random, sample);
+
+		return this._count;
+	}
+
+	/**
+	 * Gets the Random of a move
+	 */
+	private Random randomOf(Solver solver)
+	{
+		if(!this._seeded)
+			return solver.getRandom();
+
+		long seed = this._seed;
+		for (int t = 0; t < solver.getTurn(); t++)
+		{
+			seed = seed * 31 + solver.getGuess(t);
+			seed = seed * 31 + solver.getFeedback(t);
+		}
+
+		return new Random(seed);
+	}
+
+	/**
+	 * Adds codes drawn uniformly at random to the sample when they are consistent
+	 */
+	private void draw(Solver solver, Random random, long[] sample)
+	{
+		for (int i = 0; i < MAX_DRAWS && this._count < this._sampleSize; i++)
+		{
+			if(Thread.currentThread().isInterrupted())
+				return;
+
+			//stop early when the draws so far are too rarely consistent to fill the sample in time
+			if(i >= MIN_DRAWS && (long)this._count * MAX_DRAWS < (long)i * this._sampleSize)
+				return;
+
+			long code = randomCode(solver, random);
+
+			if(solver.isConsistent(code))
+				sample[this._count++] = code;
+		}
+	}
+
+	/**
+	 * Walks from consistent code to consistent code and adds every one it steps on to the sample
+	 */
+	private void walk(Solver solver, Random random, long[] sample)
+	{
+		//start from a code that is already known to be consistent, if there is one
+		long current = this._count > 0 ? sample[this._count - 1] : this._closest;
+		int distance = solver.distance(current);
+
+		for (int i = 0; i < MAX_STEPS && this._count < this._sampleSize; i++)
+		{
+			if(Thread.currentThread().isInterrupted())
+				return;
+
+			long next = step(solver, random, current);
+
+			if(next == current)
+				continue;
+
+			int d = solver.distance(next);
+
+			//always move closer, sometimes move away so the walk does not get stuck
+			if(d > distance && random.nextInt(1 << Math.min(2 * (d - distance), 30)) != 0)
+				continue;
+
+			current = next;
+			distance = d;
+
+			if(d == 0)
+				sample[this._count++] = current;
+			else if(d < this._closestDistance && !solver.isPlayed(current))
+			{
+				this._closest = current;
+				this._closestDistance = d;
+			}
+		}
+	}
+
+	/**
+	 * Gets the distinct code in the sample that splits up the sample best
+	 */
+	private long best(int length)
+	{
+		int buckets = PackedCode.feedbackCount(length);
+		if(this._histogram.length < buckets)
+			this._histogram = new int[buckets];
+
+		//every distinct code is scored once, in a fixed order so the result does not depend on the order of the sample
+		if(this._guesses.length < this._count)
+			this._guesses = new long[this._count];
+
+		System.arraycopy(this._sample, 0, this._guesses, 0, this._count);
+		Arrays.sort(this._guesses, 0, this._count);
+
+		int distinct = 0;
+		for (int i = 0; i < this._count; i++)
+		{
+			if(distinct == 0 || this._guesses[distinct - 1] != this._guesses[i])
+				this._guesses[distinct++] = this._guesses[i];
+		}
+
+		long best = this._guesses[0];
+		long bestScore = Long.MAX_VALUE;
+
+		for (int g = 0; g < distinct && distinct > 1; g++)
+		{
+			if(Thread.currentThread().isInterrupted())
+				break;
+
+			long guess = this._guesses[g];
+			Arrays.fill(this._histogram, 0, buckets, 0);
+
+			long score = 0;
+			for (int i = 0; i < this._count && score < bestScore; i++)
+			{
+				//a partition growing from n to n+1 adds 2n+1 to the sum of squares
+				score += 2 * this._histogram[PackedCode.score(guess, this._sample[i], length)]++ + 1;
+			}
+
+			if(score < bestScore)
+			{
+				best = guess;
+				bestScore = score;
+			}
+		}
+
+		return best;
+	}
+
+	/**
+	 * Draws a code uniformly at random
+	 */
+	static long randomCode(Solver solver, Random random)
+	{
+		long code = 0;
+		for (int i = 0; i < solver.getLength(); i++)
+		{
+			code = PackedCode.setPin(code, i, random.nextInt(solver.getColors()));
+		}
+
+		return code;
+	}
+
+	/**
+	 * Draws a code uniformly at random until it was not played. Only a few codes are played, so this hardly ever takes
+	 * a second draw; if it does the codes after the drawn code are tried in order
+	 * @return a code that was not played, or a random code if every code was played
+	 */
+	static long unplayedCode(Solver solver, Random random)
+	{
+		long code = randomCode(solver, random);
+
+		CodeSpace space = solver.getSpace();
+		long ordinal = space.ordinalOf(code);
+		for (long i = 1; i < space.size() && solver.isPlayed(code); i++)
+		{
+			code = space.packed((ordinal + i) % space.size());
+		}
+
+		return code;
+	}
+
+	/**
+	 * Changes the color of a random position, or swaps two random positions
+	 */
+	private static long step(Solver solver, Random random, long code)
+	{
+		int length = solver.getLength();
+		int i = random.nextInt(length);
+
+		if(length > 1 && random.nextBoolean())
+		{
+			int j = (i + 1 + random.nextInt(length - 1)) % length;
+			int pin = PackedCode.pinAt(code, i);
+			code = PackedCode.setPin(code, i, PackedCode.pinAt(code, j));
+			return PackedCode.setPin(code, j, pin);
+		}
+
+		return PackedCode.setPin(code, i, random.nextInt(solver.getColors()));
+	}
+}
@@ -0,0 +1,211 @@
+package mastermind.solver;
+
+import java.util.Random;
+import java.util.function.Supplier;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
+
+import mastermind.CodeSpace;
+import mastermind.PackedCode;
+
+/**
+ * A headless simulation that lets a GuessStrategy play against every secret code in a CodeSpace, or a random sample of them.
+ * <p>Feedback is computed with the same kernel that backs {@code PinRow.compareTo(PinRow)}, so no user input is needed.
+ * Games run in parallel, in chunks of {@code CHUNK_SIZE} games that share a strategy. Every game gets its own Random,
+ * seeded from the seed of the simulation and the secret code, and the chunks do not depend on the number of threads,
+ * so the results of a run only depend on the seed.
+ * <p>A CodeSpace that is too large to enumerate is played without a FeedbackTable, against a random sample of
+ * {@code DEFAULT_SAMPLE_SIZE} secret codes unless another sample size is set. Secret codes in such a sample are drawn
+ * independently, so in theory a code could be played against twice.
+ * @author Tom van Nimwegen
+ * @see SimulationResult
+ */
+public class Simulation
+{
+	/**
+	 * The number of secret codes played against in a CodeSpace that is not enumerated, when no sample size is set
+	 */
+	public static int DEFAULT_SAMPLE_SIZE = 1000;
+	/**
+	 * The number of games played one after the other with the same strategy
+	 */
+	public static int CHUNK_SIZE = 16;
+
+	/**
+	 * The space of all codes
+	 */
+	private final CodeSpace _space;
+	/**
+	 * The feedback table of all codes. NULL if the code space is not enumerated
+	 */
+	private final FeedbackTable _table;
+	/**
+	 * Creates a new strategy for every chunk of games
+	 */
+	private final Supplier<GuessStrategy> _strategies;
+	/**
+	 * The seed of this simulation
+	 */
+	private final long _seed;
+	/**
+	 * The number of secret codes to play against. 0 to play against every code
+	 */
+	private int _sampleSize;
+	/**
+	 * The number of guesses after which a game counts as lost
+	 */
+	private int _maxGuesses;
+
+	/**
+	 * Constructs a new Simulation against every secret code
+	 * @param table the feedback table of all codes
+	 * @param strategies creates a new strategy. Strategies are not thread safe, so every chunk of games gets its own
+	 * @param seed the seed used for sampling and for the Random of every game
+	 */
+	public Simulation(FeedbackTable table, Supplier<GuessStrategy> strategies, long seed)
+	{
+		this(table.getSpace(), table, strategies, seed);
+	}
+
+	/**
+	 * Constructs a new Simulation for a CodeSpace that is not enumerated
+	 * @param space the space of all codes
+	 * @param strategies creates a new strategy that works from the history alone, see {@code Strategy.isEnumerating()}
+	 * @param seed the seed used for sampling and for the Random of every game
+	 */
+	public Simulation(CodeSpace space, Supplier<GuessStrategy> strategies, long seed)
+	{
+		this(space, null, strategies, seed);
+	}
+
+	private Simulation(CodeSpace space, FeedbackTable table, Supplier<GuessStrategy> strategies, long seed)
+	{
+		this._space = space;
+		this._table = table;
+		this._strategies = strategies;
+		this._seed = seed;
+		this._sampleSize = 0;
+		this._maxGuesses = 100;
+	}
+
+	/**
+	 * Sets the number of secret codes to play against
+	 * @param value the number of secret codes, picked at random using the seed. 0 to play against every code, or
+	 * {@code DEFAULT_SAMPLE_SIZE} codes if the code space is not enumerated
+	 */
+	public void setSampleSize(int value)
+	{
+		this._sampleSize = value;
+	}
+
+	/**
+	 * Sets the number of guesses after which a game counts as lost
+	 * @param value the maximum number of guesses in a game
+	 */
+	public void setMaxGuesses(int value)
+	{
+		this._maxGuesses = value;
+	}
+
+	/**
+	 * Runs the simulation
+	 * @return the results of all games
+	 */
+	public SimulationResult run()
+	{
+		long[] secrets = this.pickSecrets();
+		int[] guesses = new int[secrets.length];
+		long[][] latencies = new long[secrets.length][];
+
+		int chunks = (secrets.length + CHUNK_SIZE - 1) / CHUNK_SIZE;
+
+		long start = System.nanoTime();
+
+		IntStream.range(0, chunks).parallel().forEach(c ->
+		{
+			//not one strategy per thread: a thread that joins a parallel task inside a strategy can run another chunk
+			//meanwhile, which would enter the same strategy again
+			GuessStrategy strategy = this._strategies.get();
+
+			for (int i = c * CHUNK_SIZE; i < Math.min(secrets.length, (c + 1) * CHUNK_SIZE); i++)
+			{
+				long[] moves = new long[this._maxGuesses];
+				guesses[i] = this.play(secrets[i], strategy, moves);
+				latencies[i] = moves;
+			}
+
+			strategy.release();
+		});
+
+		long wallTime = System.nanoTime() - start;
+
+		return new SimulationResult(guesses, latencies, this._maxGuesses, wallTime);
+	}
+
+	/**
+	 * Plays a single game
+	 * @param secret the ordinal of the secret code
+	 * @param strategy the strategy of the current chunk
+	 * @param moves the time every move took in nanoseconds, filled by this method
+	 * @return the number of guesses it took to win, or {@code _maxGuesses + 1} if the game was lost
+	 */
+	private int play(long secret, GuessStrategy strategy, long[] moves)
+	{
+		Random random = new Random(this._seed * 31 + secret);
+		Solver solver = this._table != null ? new Solver(this._table, strategy, random) : new Solver(this._space, strategy, random);
+		int length = this._space.getLength();
+		int win = PackedCode.feedback(length, 0, length);
+		long code = this._space.packed(secret);
+
+		for (int turn = 0; turn < this._maxGuesses; turn++)
+		{
+			long start = System.nanoTime();
+			long guess = solver.nextGuess();
+			moves[turn] = System.nanoTime() - start;
+
+			int feedback = PackedCode.score(guess, code, length);
+
+			if(feedback == win)
+				return turn + 1;
+
+			solver.addFeedback(guess, feedback);
+		}
+
+		return this._maxGuesses + 1;
+	}
+
+	/**
+	 * Picks the secret codes to play against
+	 * @return the ordinals of the secret codes
+	 */
+	private long[] pickSecrets()
+	{
+		if(this._table == null)
+		{
+			//there are too many codes to shuffle, draw them independently
+			int sampleSize = this._sampleSize > 0 ? this._sampleSize : DEFAULT_SAMPLE_SIZE;
+			Random r = new Random(this._seed);
+			return r.longs(sampleSize, 0, this._space.size()).toArray();
+		}
+
+		int size = this._table.size();
+		long[] secrets = LongStream.range(0, size).toArray();
+
+		if(this._sampleSize <= 0 || this._sampleSize >= size)
+			return secrets;
+
+		//a partial Fisher-Yates shuffle picks the sample without duplicates
+		Random r = new Random(this._seed);
+		for (int i = 0; i < this._sampleSize; i++)
+		{
+			int j = i + r.nextInt(size - i);
+			long swap = secrets[i];
+			secrets[i] = secrets[j];
+			secrets[j] = swap;
+		}
+
+		long[] sample = new long[this._sampleSize];
+		System.arraycopy(secrets, 0, sample, 0, this._sampleSize);
+		return sample;
+	}
+}
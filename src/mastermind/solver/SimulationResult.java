@@ -0,0 +1,200 @@
+package mastermind.solver;
+
+import java.util.Arrays;
+
+import mastermind.dialog.Resources;
+
+/**
+ * The results of a Simulation: the number of guesses of every game and the time every move took.
+ * @author Tom van Nimwegen
+ * @see Simulation
+ */
+public class SimulationResult
+{
+	/**
+	 * The number of games that were played
+	 */
+	private final int _games;
+	/**
+	 * The number of games that were lost
+	 */
+	private final int _lost;
+	/**
+	 * The total number of guesses of all games that were won
+	 */
+	private final long _totalGuesses;
+	/**
+	 * The largest number of guesses of a game that was won
+	 */
+	private final int _maxGuesses;
+	/**
+	 * The number of games that were won in a number of guesses, indexed by that number
+	 */
+	private final int[] _distribution;
+	/**
+	 * The time every move took in nanoseconds, sorted
+	 */
+	private final long[] _latencies;
+	/**
+	 * The time the whole simulation took in nanoseconds
+	 */
+	private final long _wallTime;
+
+	/**
+	 * Constructs a new SimulationResult
+	 * @param guesses the number of guesses of every game, or {@code limit + 1} for a game that was lost
+	 * @param latencies the time every move of every game took in nanoseconds
+	 * @param limit the number of guesses after which a game counts as lost
+	 * @param wallTime the time the whole simulation took in nanoseconds
+	 */
+	public SimulationResult(int[] guesses, long[][] latencies, int limit, long wallTime)
+	{
+		int lost = 0;
+		long total = 0;
+		int max = 0;
+		int moves = 0;
+		int[] distribution = new int[limit + 1];
+
+		for (int i = 0; i < guesses.length; i++)
+		{
+			int g = guesses[i];
+			moves += Math.min(g, limit);
+
+			if(g > limit)
+			{
+				lost++;
+				continue;
+			}
+
+			total += g;
+			max = Math.max(max, g);
+			distribution[g]++;
+		}
+
+		long[] all = new long[moves];
+		int offset = 0;
+		for (int i = 0; i < guesses.length; i++)
+		{
+			int count = Math.min(guesses[i], limit);
+			System.arraycopy(latencies[i], 0, all, offset, count);
+			offset += count;
+		}
+		Arrays.sort(all);
+
+		this._games = guesses.length;
+		this._lost = lost;
+		this._totalGuesses = total;
+		this._maxGuesses = max;
+		this._distribution = Arrays.copyOf(distribution, max + 1);
+		this._latencies = all;
+		this._wallTime = wallTime;
+	}
+
+	/**
+	 * Gets the number of games that were played
+	 */
+	public int getGames()
+	{
+		return this._games;
+	}
+
+	/**
+	 * Gets the number of games that were not won within the maximum number of guesses
+	 */
+	public int getLost()
+	{
+		return this._lost;
+	}
+
+	/**
+	 * Gets the average number of guesses of all games that were won
+	 */
+	public double getAverage()
+	{
+		int won = this._games - this._lost;
+		return won == 0 ? 0 : (double)this._totalGuesses / won;
+	}
+
+	/**
+	 * Gets the largest number of guesses of a game that was won
+	 */
+	public int getMax()
+	{
+		return this._maxGuesses;
+	}
+
+	/**
+	 * Gets the number of games that were won in a number of guesses
+	 * @return an array indexed by the number of guesses
+	 */
+	public int[] getDistribution()
+	{
+		return this._distribution.clone();
+	}
+
+	/**
+	 * Gets the number of moves of all games
+	 */
+	public int getMoves()
+	{
+		return this._latencies.length;
+	}
+
+	/**
+	 * Gets the average time of a move in nanoseconds
+	 */
+	public double getAverageLatency()
+	{
+		if(this._latencies.length == 0)
+			return 0;
+
+		long total = 0;
+		for (long l : this._latencies)
+		{
+			total += l;
+		}
+
+		return (double)total / this._latencies.length;
+	}
+
+	/**
+	 * Gets a percentile of the time of a move in nanoseconds
+	 * @param percentile the percentile, between 0 and 100
+	 */
+	public long getLatency(double percentile)
+	{
+		if(this._latencies.length == 0)
+			return 0;
+
+		int index = (int)Math.ceil(percentile / 100 * this._latencies.length) - 1;
+		return this._latencies[Math.max(0, Math.min(index, this._latencies.length - 1))];
+	}
+
+	/**
+	 * Gets the time the whole simulation took in nanoseconds
+	 */
+	public long getWallTime()
+	{
+		return this._wallTime;
+	}
+
+	@Override
+	public String toString()
+	{
+		StringBuilder out = new StringBuilder();
+
+		out.append(String.format(Resources.SIMULATION_GAMES, this._games, this._lost)).append(Resources.NL);
+		out.append(String.format(Resources.SIMULATION_GUESSES, this.getAverage(), this._maxGuesses)).append(Resources.NL);
+
+		for (int i = 1; i < this._distribution.length; i++)
+		{
+			out.append(String.format(Resources.SIMULATION_DISTRIBUTION, i, this._distribution[i])).append(Resources.NL);
+		}
+
+		out.append(String.format(Resources.SIMULATION_LATENCY, this.getAverageLatency() / 1e6, this.getLatency(50) / 1e6,
+				this.getLatency(99) / 1e6, this.getLatency(100) / 1e6)).append(Resources.NL);
+		out.append(String.format(Resources.SIMULATION_TIME, this._wallTime / 1e6));
+
+		return out.toString();
+	}
+}
@@ -0,0 +1,400 @@
+package mastermind.solver;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import mastermind.CodeSpace;
+import mastermind.PackedCode;
+
+/**
+ * The state of the computer player during a single game.
+ * <p>A Solver keeps track of the codes that are still consistent with every feedback so far and the guesses
+ * that were already played. Picking the next guess is left to a {@code GuessStrategy}.
+ * <p>Code spaces larger than {@code ENUMERATION_LIMIT} are not enumerated. A Solver for such a space only keeps the
+ * history of guesses and feedbacks, it has no feedback table and no candidate sets, and its strategy has to find
+ * consistent codes on its own, for example with {@code isConsistent(long)}.
+ * @author Tom van Nimwegen
+ * @see GuessStrategy
+ * @see FeedbackTable
+ */
+public class Solver
+{
+	/**
+	 * The largest number of codes that is enumerated into a FeedbackTable and candidate sets
+	 */
+	public static long ENUMERATION_LIMIT = 1L << 22;
+
+	/**
+	 * The feedback of every code against every other code. NULL if the code space is not enumerated
+	 */
+	private final FeedbackTable _table;
+	/**
+	 * The space of all codes
+	 */
+	private final CodeSpace _space;
+	/**
+	 * The strategy used to pick the next guess
+	 */
+	private final GuessStrategy _strategy;
+	/**
+	 * The random used by strategies that need one
+	 */
+	private final Random _random;
+	/**
+	 * The indices of all codes that are consistent with the feedback so far. NULL if the code space is not enumerated
+	 */
+	private final CandidateSet _candidates;
+	/**
+	 * The indices of all codes that were already guessed. NULL if the code space is not enumerated
+	 */
+	private final CandidateSet _played;
+	/**
+	 * The packed codes of the guesses made so far
+	 */
+	private long[] _guesses = new long[8];
+	/**
+	 * The packed feedbacks given for the guesses made so far
+	 */
+	private int[] _feedbacks = new int[8];
+	/**
+	 * The number of guesses that got feedback
+	 */
+	private int _turn;
+
+	/**
+	 * Constructs a new Solver
+	 * @param table the feedback table of all codes
+	 * @param strategy the strategy used to pick the next guess
+	 * @param random the random used by strategies that need one
+	 */
+	public Solver(FeedbackTable table, GuessStrategy strategy, Random random)
+	{
+		this._table = table;
+		this._space = table.getSpace();
+		this._strategy = strategy;
+		this._random = random;
+		this._candidates = new CandidateSet(table.size());
+		this._played = new CandidateSet(table.size());
+		this.reset();
+	}
+
+	/**
+	 * Constructs a new Solver that does not enumerate the code space
+	 * @param space the space of all codes
+	 * @param strategy the strategy used to pick the next guess. It has to work from the history alone
+	 * @param random the random used by strategies that need one
+	 */
+	public Solver(CodeSpace space, GuessStrategy strategy, Random random)
+	{
+		this._table = null;
+		this._space = space;
+		this._strategy = strategy;
+		this._random = random;
+		this._candidates = null;
+		this._played = null;
+		this.reset();
+	}
+
+	/**
+	 * Checks if a code space is small enough to be enumerated
+	 * @param space the space of all codes
+	 */
+	public static boolean canEnumerate(CodeSpace space)
+	{
+		return space.size() <= ENUMERATION_LIMIT;
+	}
+
+	/**
+	 * Resets this Solver to the start of a new game
+	 */
+	public void reset()
+	{
+		if(this._table != null)
+		{
+			this._candidates.fill();
+			this._played.clear();
+		}
+
+		this._turn = 0;
+	}
+
+	/**
+	 * Checks if this Solver enumerates the code space, so it has a feedback table and candidate sets
+	 */
+	public boolean isEnumerated()
+	{
+		return this._table != null;
+	}
+
+	/**
+	 * Gives back the memory the strategy of this Solver shares with other strategies, when the game is over. See
+	 * {@code GuessStrategy.release()}
+	 */
+	public void release()
+	{
+		this._strategy.release();
+	}
+
+	/**
+	 * Picks the next guess using the strategy of this Solver and marks it as played
+	 * @return the packed code of the next guess
+	 */
+	public long nextGuess()
+	{
+		long guess = this._strategy.nextGuess(this);
+
+		if(this._played != null)
+			this._played.add(this.indexOf(guess));
+
+		return guess;
+	}
+
+	/**
+	 * Removes all candidates that would not have given the same feedback for a guess. Candidates that were already
+	 * played are removed as well. If no candidate is left all codes that were not played become candidates again, or
+	 * all codes if every code was played.
+	 * If the code space is not enumerated only the history is kept.
+	 * @param guess the packed code of the guess
+	 * @param feedback the packed feedback that was given for the guess
+	 * @return false if no candidate was left, so the candidates were reset. Always true if the code space is not enumerated
+	 */
+	public boolean addFeedback(long guess, int feedback)
+	{
+		//remember the turn
+		if(this._turn >= this._guesses.length)
+		{
+			this._guesses = Arrays.copyOf(this._guesses, this._turn * 2);
+			this._feedbacks = Arrays.copyOf(this._feedbacks, this._turn * 2);
+		}
+		this._guesses[this._turn] = guess;
+		this._feedbacks[this._turn] = feedback;
+		this._turn++;
+
+		if(this._table == null)
+			return true;
+
+		int guessIndex = this.indexOf(guess);
+		CandidateSet candidates = this._candidates;
+
+		//remove every candidate that does not have the same answer as the guess
+		for (int index = candidates.nextIndex(0); index >= 0; index = candidates.nextIndex(index + 1))
+		{
+			if(this._table.feedback(guessIndex, index) != feedback)
+				candidates.remove(index);
+		}
+
+		candidates.removeAll(this._played);
+
+		//the feedback was inconsistent, start over
+		if(candidates.isEmpty())
+		{
+			candidates.fill();
+			candidates.removeAll(this._played);
+
+			//every code was played, so the played codes have to be candidates as well
+			if(candidates.isEmpty())
+				candidates.fill();
+
+			return false;
+		}
+
+		return true;
+	}
+
+	/**
+	 * Marks a code as guessed without asking the strategy, for guesses that were made before this Solver was created.
+	 * Their feedback is added with {@code addFeedback(long, int)} afterwards
+	 * @param guess the packed code of the guess
+	 */
+	public void addPlayed(long guess)
+	{
+		if(this._played != null)
+			this._played.add(this.indexOf(guess));
+	}
+
+	/**
+	 * Puts this Solver back into an earlier state
+	 * @param candidates a copy of the candidates of the earlier state
+	 * @param played a copy of the played guesses of the earlier state
+	 * @param turn the turn of the earlier state. The history up to this turn has to be unchanged
+	 */
+	void restore(CandidateSet candidates, CandidateSet played, int turn)
+	{
+		this._candidates.copyFrom(candidates);
+		this._played.copyFrom(played);
+		this._turn = turn;
+	}
+
+	/**
+	 * Gets the number of guesses that got feedback so far
+	 */
+	public int getTurn()
+	{
+		return this._turn;
+	}
+
+	/**
+	 * Gets a guess that got feedback
+	 * @param turn the turn of the guess, between 0 and {@code getTurn()}
+	 * @return the packed code of the guess
+	 */
+	public long getGuess(int turn)
+	{
+		return this._guesses[turn];
+	}
+
+	/**
+	 * Gets the feedback given for a guess
+	 * @param turn the turn of the guess, between 0 and {@code getTurn()}
+	 * @return the packed feedback
+	 */
+	public int getFeedback(int turn)
+	{
+		return this._feedbacks[turn];
+	}
+
+	/**
+	 * Gets the index of a packed code, which is its ordinal in the CodeSpace. Only valid if the code space is enumerated
+	 * @param code the packed code
+	 * @return the index of the code
+	 * @see CodeSpace#ordinalOf(long)
+	 */
+	public int indexOf(long code)
+	{
+		return (int)this._space.ordinalOf(code);
+	}
+
+	/**
+	 * Gets the packed code at an index
+	 * @param index the index of the code
+	 */
+	public long getCode(int index)
+	{
+		return this._table != null ? this._table.getCode(index) : this._space.packed(index);
+	}
+
+	/**
+	 * Checks if a code is still consistent with all feedback
+	 * @param code the packed code
+	 */
+	public boolean isCandidate(long code)
+	{
+		if(this._candidates == null)
+			return this.isConsistent(code);
+
+		return this._candidates.contains(this.indexOf(code));
+	}
+
+	/**
+	 * Checks if a code would have given the same feedback for every guess so far, by scoring it against the history
+	 * @param code the packed code
+	 */
+	public boolean isConsistent(long code)
+	{
+		int length = this.getLength();
+		for (int t = 0; t < this._turn; t++)
+		{
+			if(PackedCode.score(this._guesses[t], code, length) != this._feedbacks[t])
+				return false;
+		}
+
+		return true;
+	}
+
+	/**
+	 * Measures how far a code is from being consistent: the difference in black and white pins between the feedback
+	 * it would have given and the real feedback, summed over every guess so far
+	 * @param code the packed code
+	 * @return 0 if the code is consistent, more the more feedback it gets wrong
+	 */
+	public int distance(long code)
+	{
+		int length = this.getLength();
+		int distance = 0;
+		for (int t = 0; t < this._turn; t++)
+		{
+			int feedback = PackedCode.score(this._guesses[t], code, length);
+			distance += Math.abs(PackedCode.blacks(feedback, length) - PackedCode.blacks(this._feedbacks[t], length));
+			distance += Math.abs(PackedCode.whites(feedback, length) - PackedCode.whites(this._feedbacks[t], length));
+		}
+
+		return distance;
+	}
+
+	/**
+	 * Checks if a code was already guessed
+	 * @param code the packed code
+	 */
+	public boolean isPlayed(long code)
+	{
+		if(this._played != null)
+			return this._played.contains(this.indexOf(code));
+
+		for (int t = 0; t < this._turn; t++)
+		{
+			if(this._guesses[t] == code)
+				return true;
+		}
+
+		return false;
+	}
+
+	/**
+	 * Gets the indices of all codes that are consistent with the feedback so far. This set is <b>live</b>, strategies should not change it.
+	 * @return the candidates, or NULL if the code space is not enumerated
+	 */
+	public CandidateSet getCandidates()
+	{
+		return this._candidates;
+	}
+
+	/**
+	 * Gets the indices of all codes that were already guessed. This set is <b>live</b>, strategies should not change it.
+	 * @return the played codes, or NULL if the code space is not enumerated
+	 */
+	public CandidateSet getPlayed()
+	{
+		return this._played;
+	}
+
+	/**
+	 * Gets the feedback table of this Solver
+	 * @return the feedback table, or NULL if the code space is not enumerated
+	 */
+	public FeedbackTable getTable()
+	{
+		return this._table;
+	}
+
+	/**
+	 * Gets the number of positions in a code
+	 */
+	public int getLength()
+	{
+		return this._space.getLength();
+	}
+
+	/**
+	 * Gets the number of different Pins in a code
+	 */
+	public int getColors()
+	{
+		return this._space.getColors();
+	}
+
+	/**
+	 * Gets the space of all codes
+	 */
+	public CodeSpace getSpace()
+	{
+		return this._space;
+	}
+
+	/**
+	 * Gets the random of this Solver
+	 */
+	public Random getRandom()
+	{
+		return this._random;
+	}
+}
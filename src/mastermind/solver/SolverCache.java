@@ -0,0 +1,268 @@
+package mastermind.solver;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.function.Supplier;
+import java.util.zip.CRC32;
+
+import mastermind.Pin;
+import mastermind.dialog.Resources;
+
+/**
+ * An on-disk cache for precomputed solver data like the FeedbackTable.
+ * <p>Every entry is a file in a local directory, keyed by its kind, the number of pins in a code, the palette of
+ * Pins and the strategy that produced it. A file starts with a header containing a magic number, the format version,
+ * the key and a CRC32 checksum of the data. Files are opened with {@code FileChannel.map}, so the data is used straight
+ * from the page cache without copying it onto the heap.
+ * <p>A file with a wrong header or checksum is rebuilt and replaced. The cache is best effort: if the directory can
+ * not be used the data is simply built in memory.
+ * @author Tom van Nimwegen
+ * @see FeedbackTable
+ */
+public class SolverCache
+{
+	/**
+	 * The directory used by the default cache
+	 */
+	public static Path DIRECTORY = Paths.get(System.getProperty("user.home"), ".mastermind", "cache");
+	/**
+	 * The version of the file format. Files with another version are rebuilt
+	 */
+	public static final int VERSION = 2;
+
+	/**
+	 * The magic number every cache file starts with: "MMSC"
+	 */
+	private static final int MAGIC = 0x4D4D5343;
+
+	private static SolverCache _default = null;
+
+	/**
+	 * The directory of this cache
+	 */
+	private final Path _directory;
+
+	/**
+	 * Constructs a new SolverCache for a directory. The directory is created when the first entry is written.
+	 * @param directory the directory to keep the cache files in
+	 */
+	public SolverCache(Path directory)
+	{
+		this._directory = directory;
+	}
+
+	/**
+	 * A method to return the cache in {@code DIRECTORY}
+	 */
+	public static synchronized SolverCache getDefault()
+	{
+		if(_default == null || !_default._directory.equals(DIRECTORY))
+			_default = new SolverCache(DIRECTORY);
+
+		return _default;
+	}
+
+	/**
+	 * Gets the names of all valid Pins as a single string, used as the palette in cache keys
+	 */
+	public static String palette()
+	{
+		return palette(Pin.values());
+	}
+
+	/**
+	 * Gets the names of a palette of Pins as a single string, used as the palette in cache keys
+	 * @param pins the Pins, indexed by ordinal
+	 */
+	public static String palette(Pin[] pins)
+	{
+		StringBuilder out = new StringBuilder();
+		for (Pin p : pins)
+		{
+			out.append(String.format(Resources.BRACKET, p.getName()));
+		}
+
+		return out.toString();
+	}
+
+	/**
+	 * Gets an entry from the cache, or builds and stores it if there is no valid entry
+	 * @param kind the kind of data, for example {@code "feedback"}
+	 * @param length the number of pins in a code
+	 * @param palette the palette of Pins
+	 * @param strategy the name of the strategy that produced the data
+	 * @param builder builds the data when it is not in the cache
+	 * @return a read-only buffer containing the data, positioned at 0
+	 */
+	public ByteBuffer getOrBuild(String kind, int length, String palette, String strategy, Supplier<ByteBuffer> builder)
+	{
+		ByteBuffer data = this.get(kind, length, palette, strategy);
+
+		if(data == null)
+			data = this.put(kind, length, palette, strategy, builder.get());
+
+		return data;
+	}
+
+	/**
+	 * Gets an entry from the cache
+	 * @param kind the kind of data
+	 * @param length the number of pins in a code
+	 * @param palette the palette of Pins
+	 * @param strategy the name of the strategy that produced the data
+	 * @return a read-only buffer containing the data, or NULL if there is no entry or the entry is stale or corrupted
+	 */
+	public ByteBuffer get(String kind, int length, String palette, String strategy)
+	{
+		Path file = this.fileOf(kind, length, palette, strategy);
+
+		if(!Files.isRegularFile(file))
+			return null;
+
+		try(FileChannel channel = FileChannel.open(file, StandardOpenOption.READ))
+		{
+			ByteBuffer map = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+			map.order(ByteOrder.BIG_ENDIAN);
+
+			byte[] expected = header(kind, length, palette, strategy);
+			if(map.remaining() < expected.length + 2 * Long.BYTES)
+				return null;
+
+			//the key in the header has to match exactly
+			for (int i = 0; i < expected.length; i++)
+			{
+				if(map.get(i) != expected[i])
+					return null;
+			}
+
+			long size = map.getLong(expected.length);
+			long checksum = map.getLong(expected.length + Long.BYTES);
+			int offset = expected.length + 2 * Long.BYTES;
+
+			if(size != map.capacity() - offset)
+				return null;
+
+			map.position(offset);
+			ByteBuffer data = map.slice();
+
+			CRC32 crc = new CRC32();
+			crc.update(data.duplicate());
+
+			if(crc.getValue() != checksum)
+				return null;
+
+			return data.asReadOnlyBuffer();
+		}
+		catch (IOException e)
+		{
+			return null;
+		}
+	}
+
+	/**
+	 * Stores an entry in the cache, replacing any existing entry
+	 * @param kind the kind of data
+	 * @param length the number of pins in a code
+	 * @param palette the palette of Pins
+	 * @param strategy the name of the strategy that produced the data
+	 * @param data the data to store, from its position to its limit
+	 * @return a read-only buffer containing the data. This is the mapped file if it could be written, or {@code data} itself if not
+	 */
+	public ByteBuffer put(String kind, int length, String palette, String strategy, ByteBuffer data)
+	{
+		Path file = this.fileOf(kind, length, palette, strategy);
+
+		try
+		{
+			Files.createDirectories(this._directory);
+
+			byte[] header = header(kind, length, palette, strategy);
+			CRC32 crc = new CRC32();
+			crc.update(data.duplicate());
+
+			ByteBuffer trailer = ByteBuffer.allocate(2 * Long.BYTES);
+			trailer.putLong(data.remaining());
+			trailer.putLong(crc.getValue());
+			trailer.flip();
+
+			//write to a temporary file first, so readers never see a half written file
+			Path temp = Files.createTempFile(this._directory, kind, ".tmp");
+			try
+			{
+				try(FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE))
+				{
+					ByteBuffer[] parts = { ByteBuffer.wrap(header), trailer, data.duplicate() };
+					long total = header.length + trailer.remaining() + data.remaining();
+					long written = 0;
+
+					while(written < total)
+					{
+						written += channel.write(parts);
+					}
+				}
+
+				try
+				{
+					Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+				}
+				catch (IOException e)
+				{
+					Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+				}
+			}
+			finally
+			{
+				//the temporary file is gone after a move, otherwise it would be left in the cache for good
+				Files.deleteIfExists(temp);
+			}
+
+			ByteBuffer stored = this.get(kind, length, palette, strategy);
+			if(stored != null)
+				return stored;
+		}
+		catch (IOException e)
+		{
+			//the cache is best effort, fall through to the data in memory
+		}
+
+		return data.asReadOnlyBuffer();
+	}
+
+	/**
+	 * Gets the file of an entry
+	 */
+	private Path fileOf(String kind, int length, String palette, String strategy)
+	{
+		//the palette can contain any character, so only its hash goes in the file name
+		String name = kind + "-" + length + "x" + Integer.toHexString(palette.hashCode()) + "-" + strategy + ".bin";
+		return this._directory.resolve(name);
+	}
+
+	/**
+	 * Creates the header of an entry, without the size and checksum
+	 */
+	private static byte[] header(String kind, int length, String palette, String strategy)
+	{
+		byte[] k = kind.getBytes(StandardCharsets.UTF_8);
+		byte[] p = palette.getBytes(StandardCharsets.UTF_8);
+		byte[] s = strategy.getBytes(StandardCharsets.UTF_8);
+
+		ByteBuffer header = ByteBuffer.allocate(6 * Integer.BYTES + k.length + p.length + s.length);
+		header.putInt(MAGIC);
+		header.putInt(VERSION);
+		header.putInt(length);
+		header.putInt(k.length).put(k);
+		header.putInt(p.length).put(p);
+		header.putInt(s.length).put(s);
+
+		return header.array();
+	}
+}
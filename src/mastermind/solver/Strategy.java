@@ -0,0 +1,125 @@
+package mastermind.solver;
+
+import java.util.function.Supplier;
+
+/**
+ * The strategies the computer player can use
+ * @author Tom van Nimwegen
+ * @see GuessStrategy
+ */
+public enum Strategy
+{
+	/**
+	 * Minimize the worst case, see MinimaxStrategy
+	 */
+	MINIMAX("minimax", MinimaxStrategy::new, true, true),
+	/**
+	 * Maximize the information of every guess, see EntropyStrategy
+	 */
+	ENTROPY("entropy", EntropyStrategy::new, true, true),
+	/**
+	 * Minimize the average case, see ExpectedSizeStrategy
+	 */
+	EXPECTED_SIZE("expected", ExpectedSizeStrategy::new, true, true),
+	/**
+	 * Guess a random candidate, see RandomStrategy
+	 */
+	RANDOM("random", RandomStrategy::new, true, false),
+	/**
+	 * Score guesses against a random sample of the consistent codes, see SamplingStrategy
+	 */
+	SAMPLING("sampling", SamplingStrategy::new, false, false),
+	/**
+	 * Score guesses against the consistent codes found by constraint propagation, see ConstraintStrategy
+	 */
+	CONSTRAINT("constraint", ConstraintStrategy::new, false, false),
+	/**
+	 * Score guesses against the consistent codes found by evolving a population, see GeneticStrategy
+	 */
+	GENETIC("genetic", GeneticStrategy::new, false, false),
+	/**
+	 * Answer within a time budget, see AnytimeStrategy
+	 */
+	ANYTIME("anytime", AnytimeStrategy::new, false, false);
+
+	/**
+	 * The name of the strategy, used as input
+	 */
+	private final String _name;
+	/**
+	 * Creates a new instance of the strategy
+	 */
+	private final Supplier<GuessStrategy> _factory;
+	/**
+	 * Tells if the strategy needs a Solver that enumerates the code space
+	 */
+	private final boolean _enumerating;
+	/**
+	 * Tells if the guess of the strategy only depends on the state of the Solver
+	 */
+	private final boolean _deterministic;
+
+	private Strategy(String name, Supplier<GuessStrategy> factory, boolean enumerating, boolean deterministic)
+	{
+		this._name = name;
+		this._factory = factory;
+		this._enumerating = enumerating;
+		this._deterministic = deterministic;
+	}
+
+	/**
+	 * Gets the name of this strategy
+	 */
+	public String getName()
+	{
+		return this._name;
+	}
+
+	/**
+	 * Checks if this strategy needs a Solver that enumerates the code space, so it can not play spaces larger than
+	 * {@code Solver.ENUMERATION_LIMIT}
+	 */
+	public boolean isEnumerating()
+	{
+		return this._enumerating;
+	}
+
+	/**
+	 * Checks if the guess of this strategy only depends on the state of the Solver, not on its Random or on the time it
+	 * got. Only the guesses of such a strategy can be reused from a TranspositionCache
+	 */
+	public boolean isDeterministic()
+	{
+		return this._deterministic;
+	}
+
+	/**
+	 * Creates a new instance of this strategy. Strategies are not thread safe, so every thread needs its own
+	 */
+	public GuessStrategy create()
+	{
+		return this._factory.get();
+	}
+
+	/**
+	 * Gets the strategy with a name
+	 * @param name the name of the strategy, not case sensitive
+	 * @return the strategy, or NULL if there is no strategy with that name
+	 */
+	public static Strategy fromName(String name)
+	{
+		for (Strategy s : values())
+		{
+			if(s._name.equalsIgnoreCase(name))
+				return s;
+		}
+
+		return null;
+	}
+
+	@Override
+	public String toString()
+	{
+		return this._name;
+	}
+}
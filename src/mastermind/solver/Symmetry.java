@@ -0,0 +1,252 @@
+package mastermind.solver;
+
+import java.util.Arrays;
+
+import mastermind.PackedCode;
+
+/**
+ * The symmetries of a game that leave its history unchanged, used to skip guesses that are equivalent to each other.
+ * <p>Colors that were never played are interchangeable, and so are positions that held the same color in every guess
+ * so far. Relabeling free colors or swapping such positions maps every guess in the history onto itself, so it maps
+ * the candidates onto themselves, and two guesses that map onto each other split up the candidates the same way.
+ * <p>{@code canonical(long)} maps a code onto a representative of its class by sorting the colors within every group
+ * of interchangeable positions and relabeling the free colors in order of appearance, until nothing changes. Every
+ * step is a symmetry, so codes with the same representative are always equivalent. On the first turns this leaves
+ * only the "shapes" of codes: after {@code AABB} on 4 pins and 6 colors, the 1296 codes collapse into 70
+ * classes.
+ * @author Tom van Nimwegen
+ * @see PartitionStrategy
+ */
+public class Symmetry
+{
+	/**
+	 * The number of positions in a code
+	 */
+	private final int _length;
+	/**
+	 * The groups of interchangeable positions, every group sorted by position
+	 */
+	private final int[][] _groups;
+	/**
+	 * Tells for every color if it was never played
+	 */
+	private final boolean[] _free;
+	/**
+	 * The colors that were never played, in ascending order
+	 */
+	private final int[] _freeColors;
+	/**
+	 * The new label of every free color during {@code relabel(long)}, valid when its stamp is current
+	 */
+	private final int[] _map;
+	/**
+	 * The stamp of every entry in {@code _map}
+	 */
+	private final int[] _stamps;
+	/**
+	 * The stamp of the current relabel
+	 */
+	private int _stamp;
+	/**
+	 * The colors of a single group while it is sorted
+	 */
+	private final int[] _scratch;
+
+	/**
+	 * Constructs the Symmetry of a game history
+	 * @param length the number of positions in a code
+	 * @param colors the number of different Pins
+	 * @param guesses the packed codes of the guesses so far
+	 * @param turns the number of guesses in {@code guesses}
+	 */
+	public Symmetry(int length, int colors, long[] guesses, int turns)
+	{
+		this._length = length;
+
+		//positions are in the same group when every guess has the same color in them
+		int[] groupOf = new int[length];
+		int groupCount = 0;
+		for (int i = 0; i < length; i++)
+		{
+			groupOf[i] = -1;
+			for (int j = 0; j < i && groupOf[i] < 0; j++)
+			{
+				if(samePins(guesses, turns, i, j))
+					groupOf[i] = groupOf[j];
+			}
+
+			if(groupOf[i] < 0)
+				groupOf[i] = groupCount++;
+		}
+
+		int[] sizes = new int[groupCount];
+		for (int g : groupOf)
+		{
+			sizes[g]++;
+		}
+
+		this._groups = new int[groupCount][];
+		for (int g = 0; g < groupCount; g++)
+		{
+			this._groups[g] = new int[sizes[g]];
+			sizes[g] = 0;
+		}
+		for (int i = 0; i < length; i++)
+		{
+			this._groups[groupOf[i]][sizes[groupOf[i]]++] = i;
+		}
+
+		//colors are free when no guess used them
+		this._free = new boolean[colors];
+		Arrays.fill(this._free, true);
+		for (int t = 0; t < turns; t++)
+		{
+			for (int i = 0; i < length; i++)
+			{
+				this._free[PackedCode.pinAt(guesses[t], i)] = false;
+			}
+		}
+
+		int freeCount = 0;
+		for (boolean f : this._free)
+		{
+			if(f)
+				freeCount++;
+		}
+
+		this._freeColors = new int[freeCount];
+		for (int c = 0, n = 0; c < colors; c++)
+		{
+			if(this._free[c])
+				this._freeColors[n++] = c;
+		}
+
+		this._map = new int[colors];
+		this._stamps = new int[colors];
+		this._scratch = new int[length];
+	}
+
+	/**
+	 * Gets the Symmetry of the history of a Solver
+	 * @param solver the solver
+	 * @return the Symmetry, or NULL if the history leaves no symmetry to use
+	 */
+	public static Symmetry of(Solver solver)
+	{
+		long[] guesses = new long[solver.getTurn()];
+		for (int t = 0; t < guesses.length; t++)
+		{
+			guesses[t] = solver.getGuess(t);
+		}
+
+		Symmetry symmetry = new Symmetry(solver.getLength(), solver.getColors(), guesses, guesses.length);
+		return symmetry.isTrivial() ? null : symmetry;
+	}
+
+	/**
+	 * Checks if every code is only equivalent to itself
+	 */
+	public boolean isTrivial()
+	{
+		return this._freeColors.length <= 1 && this._groups.length == this._length;
+	}
+
+	/**
+	 * Maps a code onto the representative of its class. Not thread safe.
+	 * @param code the packed code
+	 * @return the packed code of the representative
+	 */
+	public long canonical(long code)
+	{
+		//every step is a symmetry, so even without a fixed point the result is equivalent to code
+		for (int i = 0; i <= this._length; i++)
+		{
+			long next = this.relabel(this.sort(code));
+
+			if(next == code)
+				break;
+
+			code = next;
+		}
+
+		return code;
+	}
+
+	/**
+	 * Sorts the colors within every group of interchangeable positions
+	 */
+	private long sort(long code)
+	{
+		for (int[] group : this._groups)
+		{
+			if(group.length == 1)
+				continue;
+
+			//insertion sort, groups are never larger than a code
+			for (int i = 0; i < group.length; i++)
+			{
+				int pin = PackedCode.pinAt(code, group[i]);
+				int j = i;
+
+				while(j > 0 && this._scratch[j - 1] > pin)
+				{
+					this._scratch[j] = this._scratch[j - 1];
+					j--;
+				}
+
+				this._scratch[j] = pin;
+			}
+
+			for (int i = 0; i < group.length; i++)
+			{
+				code = PackedCode.setPin(code, group[i], this._scratch[i]);
+			}
+		}
+
+		return code;
+	}
+
+	/**
+	 * Relabels the free colors in order of their first appearance
+	 */
+	private long relabel(long code)
+	{
+		if(this._freeColors.length <= 1)
+			return code;
+
+		int stamp = ++this._stamp;
+		int next = 0;
+
+		for (int i = 0; i < this._length; i++)
+		{
+			int pin = PackedCode.pinAt(code, i);
+
+			if(!this._free[pin])
+				continue;
+
+			if(this._stamps[pin] != stamp)
+			{
+				this._stamps[pin] = stamp;
+				this._map[pin] = this._freeColors[next++];
+			}
+
+			code = PackedCode.setPin(code, i, this._map[pin]);
+		}
+
+		return code;
+	}
+
+	/**
+	 * Checks if two positions had the same color in every guess
+	 */
+	private static boolean samePins(long[] guesses, int turns, int i, int j)
+	{
+		for (int t = 0; t < turns; t++)
+		{
+			if(PackedCode.pinAt(guesses[t], i) != PackedCode.pinAt(guesses[t], j))
+				return false;
+		}
+
+		return true;
+	}
+}
@@ -0,0 +1,309 @@
+package mastermind.solver;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A size-bounded cache of solved states, shared by every Solver and every thread.
+ * <p>The same histories come back in game after game, the first two turns most of all, and every time the strategy
+ * would search for the same guess again. This cache remembers the guess a strategy made in a state, and the number of
+ * candidates in that state, under a 64-bit key of the state. In an enumerated code space the key is a hash of the
+ * candidate set and the set of played codes, the two sets a strategy picks its guess from, so every history that
+ * leaves the same sets shares an entry. Otherwise it is a hash of the history in canonical order, the order of the
+ * turns does not change which codes are consistent.
+ * <p>The entries are spread over {@code STRIPES} stripes by key. Every stripe is an LRU map with its own lock, so
+ * threads only wait for each other when they use the same stripe, and every stripe evicts its least recently used
+ * entry when it is full. Hits, misses and evictions are counted without locking.
+ * @author Tom van Nimwegen
+ * @see CachingStrategy
+ */
+public class TranspositionCache
+{
+	/**
+	 * The number of entries in the shared cache
+	 */
+	public static int CAPACITY = 1 << 16;
+	/**
+	 * The number of stripes of a cache, a power of two
+	 */
+	public static int STRIPES = 64;
+
+	private static TranspositionCache _shared = null;
+
+	/**
+	 * The stripes, picked by the high bits of the key
+	 */
+	private final Stripe[] _stripes;
+	/**
+	 * The number of entries in this cache
+	 */
+	private final int _capacity;
+
+	private final LongAdder _hits = new LongAdder();
+	private final LongAdder _misses = new LongAdder();
+	private final LongAdder _evictions = new LongAdder();
+
+	/**
+	 * Constructs a new, empty TranspositionCache with {@code STRIPES} stripes
+	 * @param capacity the number of entries in the cache
+	 */
+	public TranspositionCache(int capacity)
+	{
+		if(capacity < 1)
+			throw new IllegalArgumentException(Integer.toString(capacity));
+		if(Integer.bitCount(STRIPES) != 1)
+			throw new IllegalArgumentException(Integer.toString(STRIPES));
+
+		this._capacity = capacity;
+
+		//every stripe holds at least one entry
+		int stripes = Math.min(STRIPES, Integer.highestOneBit(capacity));
+		this._stripes = new Stripe[stripes];
+		for (int s = 0; s < stripes; s++)
+		{
+			this._stripes[s] = new Stripe(capacity / stripes + (s < capacity % stripes ? 1 : 0));
+		}
+	}
+
+	/**
+	 * Gets the cache shared by all sessions, with {@code CAPACITY} entries
+	 */
+	public static synchronized TranspositionCache getShared()
+	{
+		if(_shared == null || _shared._capacity != CAPACITY)
+			_shared = new TranspositionCache(CAPACITY);
+
+		return _shared;
+	}
+
+	/**
+	 * Computes the key of the state of a Solver
+	 * @param solver the solver
+	 * @param strategy the name of the strategy that picks the guesses, the same state gets another guess from another strategy
+	 * @return the key: a hash of the candidates and the played codes if the code space is enumerated, otherwise of the
+	 * history in canonical order
+	 */
+	public static long key(Solver solver, String strategy)
+	{
+		long h = mix(strategy.hashCode() * 31L + solver.getSpace().hashCode());
+
+		if(solver.isEnumerated())
+			return mix(mix(h ^ solver.getCandidates().fingerprint()) ^ solver.getPlayed().fingerprint());
+
+		//the order of the turns does not matter, and neither does a repeated turn
+		int turns = solver.getTurn();
+		long[] history = new long[turns];
+		for (int t = 0; t < turns; t++)
+		{
+			history[t] = mix(mix(solver.getGuess(t)) ^ solver.getFeedback(t));
+		}
+		Arrays.sort(history);
+
+		for (int t = 0; t < turns; t++)
+		{
+			if(t == 0 || history[t] != history[t - 1])
+				h = mix(h ^ history[t]);
+		}
+
+		return h;
+	}
+
+	/**
+	 * Spreads the bits of a value over all 64 bits, so similar values get very different hashes
+	 */
+	static long mix(long z)
+	{
+		z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+		z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+		return z ^ (z >>> 31);
+	}
+
+	private Stripe stripe(long key)
+	{
+		return this._stripes[(int)(key >>> 32) & (this._stripes.length - 1)];
+	}
+
+	/**
+	 * Gets the entry of a state and marks it as recently used
+	 * @param key the key of the state, see {@code key(Solver, String)}
+	 * @return the entry, or NULL if the state is not in the cache
+	 */
+	public Entry get(long key)
+	{
+		Stripe stripe = this.stripe(key);
+		Entry entry;
+
+		synchronized(stripe)
+		{
+			entry = stripe.get(key);
+		}
+
+		if(entry != null)
+			this._hits.increment();
+		else
+			this._misses.increment();
+
+		return entry;
+	}
+
+	/**
+	 * Adds the entry of a state, replacing an earlier entry of the same state. When the stripe of the state is full its
+	 * least recently used entry is evicted
+	 * @param key the key of the state, see {@code key(Solver, String)}
+	 * @param guess the packed code of the guess the strategy made in the state
+	 * @param candidates the number of candidates in the state, or -1 if the code space is not enumerated
+	 */
+	public void put(long key, long guess, long candidates)
+	{
+		Stripe stripe = this.stripe(key);
+
+		synchronized(stripe)
+		{
+			stripe.put(key, new Entry(guess, candidates));
+		}
+	}
+
+	/**
+	 * Removes every entry from this cache. The statistics are kept
+	 */
+	public void clear()
+	{
+		for (Stripe stripe : this._stripes)
+		{
+			synchronized(stripe)
+			{
+				stripe.clear();
+			}
+		}
+	}
+
+	/**
+	 * Gets the number of entries in this cache
+	 */
+	public int size()
+	{
+		int size = 0;
+		for (Stripe stripe : this._stripes)
+		{
+			synchronized(stripe)
+			{
+				size += stripe.size();
+			}
+		}
+
+		return size;
+	}
+
+	/**
+	 * Gets the maximum number of entries in this cache
+	 */
+	public int capacity()
+	{
+		return this._capacity;
+	}
+
+	/**
+	 * Gets the number of lookups that found an entry
+	 */
+	public long getHits()
+	{
+		return this._hits.sum();
+	}
+
+	/**
+	 * Gets the number of lookups that found no entry
+	 */
+	public long getMisses()
+	{
+		return this._misses.sum();
+	}
+
+	/**
+	 * Gets the number of entries that were evicted to make room for new ones
+	 */
+	public long getEvictions()
+	{
+		return this._evictions.sum();
+	}
+
+	/**
+	 * Gets the share of lookups that found an entry
+	 * @return the hit rate between 0 and 1, or 0 if there were no lookups
+	 */
+	public double getHitRate()
+	{
+		long hits = this.getHits();
+		long lookups = hits + this.getMisses();
+
+		return lookups == 0 ? 0 : (double)hits / lookups;
+	}
+
+	@Override
+	public String toString()
+	{
+		return String.format("%1$d/%2$d entries, %3$d hits, %4$d misses (%5$.1f%%), %6$d evictions", this.size(), this._capacity, this.getHits(), this.getMisses(), this.getHitRate() * 100, this.getEvictions());
+	}
+
+	/**
+	 * The guess a strategy made in a state and the number of candidates in that state
+	 */
+	public static final class Entry
+	{
+		private final long _guess;
+		private final long _candidates;
+
+		Entry(long guess, long candidates)
+		{
+			this._guess = guess;
+			this._candidates = candidates;
+		}
+
+		/**
+		 * Gets the packed code of the guess
+		 */
+		public long getGuess()
+		{
+			return this._guess;
+		}
+
+		/**
+		 * Gets the number of candidates in the state
+		 * @return the number of candidates, or -1 if the code space is not enumerated
+		 */
+		public long getCandidates()
+		{
+			return this._candidates;
+		}
+	}
+
+	/**
+	 * A part of the cache with its own lock: an LRU map that evicts its eldest entry when it is full
+	 */
+	private class Stripe extends LinkedHashMap<Long, TranspositionCache.Entry>
+	{
+		private static final long serialVersionUID = 1L;
+
+		/**
+		 * The number of entries in this stripe
+		 */
+		private final int _capacity;
+
+		Stripe(int capacity)
+		{
+			super(16, 0.75f, true);
+			this._capacity = capacity;
+		}
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<Long, TranspositionCache.Entry> eldest)
+		{
+			if(this.size() <= this._capacity)
+				return false;
+
+			_evictions.increment();
+			return true;
+		}
+	}
+}